@@ -0,0 +1,77 @@
+package com.colega.jake.diamondkineticschallenge.benchmarks;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Benchmark inputs are test_swing.csv tiled up to the requested number of samples
+final class BenchmarkData {
+
+    private static final String TEST_SWING_RESOURCE = "/test_swing.csv";
+    private static final int QUANTILE_SAMPLES = 1 << 20;
+
+    private BenchmarkData() {}
+
+    static Swing testSwing() {
+        try (final InputStream inputStream = openTestSwing()) {
+            return new Swing(inputStream);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static double[] tile(final double[] source, final int sampleCount) {
+
+        final double[] data = new double[sampleCount];
+        for (int i = 0; i < sampleCount; i += source.length) {
+            System.arraycopy(source, 0, data, i, Integer.min(source.length, sampleCount - i));
+        }
+
+        return data;
+    }
+
+    static String csv(final int sampleCount) {
+
+        final List<String> lines = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(openTestSwing(), Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final StringBuilder csv = new StringBuilder(sampleCount * 64);
+        for (int i = 0; i < sampleCount; i++) {
+            csv.append(lines.get(i % lines.size())).append('\n');
+        }
+
+        return csv.toString();
+    }
+
+    // Value below which the given fraction of the data lies, estimated from an evenly strided sample
+    static double quantile(final double[] data, final double fraction) {
+
+        final int step = Integer.max(1, data.length / QUANTILE_SAMPLES);
+        final double[] sample = new double[(data.length + step - 1) / step];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = data[i * step];
+        }
+        Arrays.sort(sample);
+
+        return sample[(int) Math.min(sample.length - 1, Math.max(0, Math.round(fraction * (sample.length - 1))))];
+    }
+
+    private static InputStream openTestSwing() {
+        return BenchmarkData.class.getResourceAsStream(TEST_SWING_RESOURCE);
+    }
+}
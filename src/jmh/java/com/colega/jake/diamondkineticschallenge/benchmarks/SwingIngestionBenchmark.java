@@ -0,0 +1,74 @@
+package com.colega.jake.diamondkineticschallenge.benchmarks;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@State(Scope.Benchmark)
+public class SwingIngestionBenchmark {
+
+    // CSV text is about 60 bytes a sample, so the largest size is kept to what fits a benchmark heap
+    @Param({"1276", "100000", "10000000"})
+    public int sampleCount;
+
+    private String csv;
+    private byte[] csvBytes;
+    private Path csvPath;
+    private Path binaryPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        this.csv = BenchmarkData.csv(this.sampleCount);
+        this.csvBytes = this.csv.getBytes(Charset.defaultCharset());
+
+        this.csvPath = Files.createTempFile("swing", ".csv");
+        Files.write(this.csvPath, this.csvBytes);
+
+        this.binaryPath = Files.createTempFile("swing", ".bin");
+        new Swing(this.csvPath).writeBinary(this.binaryPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.csvPath);
+        Files.deleteIfExists(this.binaryPath);
+    }
+
+    @Benchmark
+    public Swing fromString() {
+        return new Swing(this.csv);
+    }
+
+    @Benchmark
+    public Swing fromFile() {
+        return new Swing(new File(this.csvPath.toString()));
+    }
+
+    @Benchmark
+    public Swing fromPath() {
+        return new Swing(this.csvPath);
+    }
+
+    @Benchmark
+    public Swing fromInputStream() {
+        return new Swing(new ByteArrayInputStream(this.csvBytes));
+    }
+
+    @Benchmark
+    public Swing mapBinary() {
+        return Swing.mapBinary(this.binaryPath);
+    }
+}
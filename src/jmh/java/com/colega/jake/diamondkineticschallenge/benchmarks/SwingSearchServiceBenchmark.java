@@ -0,0 +1,98 @@
+package com.colega.jake.diamondkineticschallenge.benchmarks;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.services.SwingSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class SwingSearchServiceBenchmark {
+
+    // From the size of test_swing.csv up to a multi-hour session
+    @Param({"1276", "1000000", "100000000"})
+    public int sampleCount;
+
+    @Param({"1", "10", "100"})
+    public int winLength;
+
+    // Fraction of samples passing the threshold test
+    @Param({"0.01", "0.5", "0.99"})
+    public double selectivity;
+
+    private SwingSearchService swingSearchService;
+
+    private double[] data1;
+    private double[] data2;
+    private double threshold1;
+    private double threshold2;
+    private double thresholdLo;
+    private double thresholdHi;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        final Swing testSwing = BenchmarkData.testSwing();
+
+        this.swingSearchService = new SwingSearchService();
+
+        this.data1 = BenchmarkData.tile(testSwing.getAcceleratorXData(), this.sampleCount);
+        this.data2 = BenchmarkData.tile(testSwing.getAcceleratorYData(), this.sampleCount);
+
+        this.threshold1 = BenchmarkData.quantile(this.data1, 1 - this.selectivity);
+        this.threshold2 = BenchmarkData.quantile(this.data2, 1 - this.selectivity);
+        this.thresholdLo = BenchmarkData.quantile(this.data1, 0.5 - this.selectivity / 2);
+        this.thresholdHi = BenchmarkData.quantile(this.data1, 0.5 + this.selectivity / 2);
+    }
+
+    @Benchmark
+    public int searchContinuityAboveValue() {
+        return this.swingSearchService.searchContinuityAboveValue(
+                this.data1,
+                0,
+                this.data1.length,
+                this.threshold1,
+                this.winLength
+        );
+    }
+
+    @Benchmark
+    public int backSearchContinuityWithinRange() {
+        return this.swingSearchService.backSearchContinuityWithinRange(
+                this.data1,
+                this.data1.length - 1,
+                -1,
+                this.thresholdLo,
+                this.thresholdHi,
+                this.winLength
+        );
+    }
+
+    @Benchmark
+    public int searchContinuityAboveValueTwoSignals() {
+        return this.swingSearchService.searchContinuityAboveValueTwoSignals(
+                this.data1,
+                this.data2,
+                0,
+                this.data1.length,
+                this.threshold1,
+                this.threshold2,
+                this.winLength
+        );
+    }
+
+    @Benchmark
+    public int[][] searchMultiContinuityWithinRange() {
+        return this.swingSearchService.searchMultiContinuityWithinRange(
+                this.data1,
+                0,
+                this.data1.length,
+                this.thresholdLo,
+                this.thresholdHi,
+                this.winLength
+        );
+    }
+}
@@ -0,0 +1,203 @@
+package com.colega.jake.diamondkineticschallenge.batch;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import com.colega.jake.diamondkineticschallenge.services.SwingQuery;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// swing.batch settings, read by SwingBatchRunner
+@ConfigurationProperties(prefix = "swing.batch")
+public class SwingBatchProperties {
+
+    private boolean enabled;
+    private String directory = ".";
+    private String glob = "*.csv";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 64;
+    private List<Query> queries = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    public String getGlob() {
+        return this.glob;
+    }
+
+    public void setGlob(final String glob) {
+        this.glob = glob;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public List<Query> getQueries() {
+        return this.queries;
+    }
+
+    public void setQueries(final List<Query> queries) {
+        this.queries = queries;
+    }
+
+    // The configured queries sized for one swing
+    public List<SwingQuery> toQueries(final Swing swing) {
+
+        final List<SwingQuery> swingQueries = new ArrayList<>(this.queries.size());
+        for (final Query query : this.queries) {
+            swingQueries.add(query.toQuery(swing.getLength()));
+        }
+
+        return swingQueries;
+    }
+
+    // One search, unset indices cover the whole swing in the search direction
+    public static class Query {
+
+        private SwingQuery.Type type;
+        private SwingChannel channel;
+        private SwingChannel channel2;
+        private Integer indexBegin;
+        private Integer indexEnd;
+        private double thresholdLo;
+        private double thresholdHi = Double.MAX_VALUE;
+        private double threshold2;
+        private int winLength = 1;
+
+        public SwingQuery.Type getType() {
+            return this.type;
+        }
+
+        public void setType(final SwingQuery.Type type) {
+            this.type = type;
+        }
+
+        public SwingChannel getChannel() {
+            return this.channel;
+        }
+
+        public void setChannel(final SwingChannel channel) {
+            this.channel = channel;
+        }
+
+        public SwingChannel getChannel2() {
+            return this.channel2;
+        }
+
+        public void setChannel2(final SwingChannel channel2) {
+            this.channel2 = channel2;
+        }
+
+        public Integer getIndexBegin() {
+            return this.indexBegin;
+        }
+
+        public void setIndexBegin(final Integer indexBegin) {
+            this.indexBegin = indexBegin;
+        }
+
+        public Integer getIndexEnd() {
+            return this.indexEnd;
+        }
+
+        public void setIndexEnd(final Integer indexEnd) {
+            this.indexEnd = indexEnd;
+        }
+
+        public double getThresholdLo() {
+            return this.thresholdLo;
+        }
+
+        public void setThresholdLo(final double thresholdLo) {
+            this.thresholdLo = thresholdLo;
+        }
+
+        public double getThresholdHi() {
+            return this.thresholdHi;
+        }
+
+        public void setThresholdHi(final double thresholdHi) {
+            this.thresholdHi = thresholdHi;
+        }
+
+        public double getThreshold2() {
+            return this.threshold2;
+        }
+
+        public void setThreshold2(final double threshold2) {
+            this.threshold2 = threshold2;
+        }
+
+        public int getWinLength() {
+            return this.winLength;
+        }
+
+        public void setWinLength(final int winLength) {
+            this.winLength = winLength;
+        }
+
+        SwingQuery toQuery(final int length) {
+
+            switch (this.type) {
+
+                case CONTINUITY_ABOVE_VALUE:
+                    return SwingQuery.continuityAboveValue(
+                            this.channel, this.begin(0), this.end(length), this.thresholdLo, this.winLength
+                    );
+
+                case BACK_CONTINUITY_WITHIN_RANGE:
+                    return SwingQuery.backContinuityWithinRange(
+                            this.channel, this.begin(length - 1), this.end(-1), this.thresholdLo, this.thresholdHi, this.winLength
+                    );
+
+                case CONTINUITY_ABOVE_VALUE_TWO_SIGNALS:
+                    return SwingQuery.continuityAboveValueTwoSignals(
+                            this.channel, this.channel2, this.begin(0), this.end(length), this.thresholdLo, this.threshold2, this.winLength
+                    );
+
+                case MULTI_CONTINUITY_WITHIN_RANGE:
+                    return SwingQuery.multiContinuityWithinRange(
+                            this.channel, this.begin(0), this.end(length), this.thresholdLo, this.thresholdHi, this.winLength
+                    );
+
+                default:
+                    throw new IllegalStateException("Unknown query type " + this.type);
+            }
+        }
+
+        private int begin(final int defaultBegin) {
+            return this.indexBegin != null ? this.indexBegin : defaultBegin;
+        }
+
+        private int end(final int defaultEnd) {
+            return this.indexEnd != null ? this.indexEnd : defaultEnd;
+        }
+    }
+}
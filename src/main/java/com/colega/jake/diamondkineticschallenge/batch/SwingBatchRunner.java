@@ -0,0 +1,67 @@
+package com.colega.jake.diamondkineticschallenge.batch;
+
+import com.colega.jake.diamondkineticschallenge.services.SwingBatchProcessor;
+import com.colega.jake.diamondkineticschallenge.services.SwingBatchReport;
+import com.colega.jake.diamondkineticschallenge.services.SwingFileResult;
+import com.colega.jake.diamondkineticschallenge.services.SwingQueryResult;
+import com.colega.jake.diamondkineticschallenge.services.SwingSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Runs the configured searches over a directory of captures at startup, only when swing.batch.enabled is true
+@Component
+@ConditionalOnProperty(prefix = "swing.batch", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SwingBatchProperties.class)
+public class SwingBatchRunner implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SwingBatchRunner.class);
+
+    private final SwingBatchProperties properties;
+
+    public SwingBatchRunner(final SwingBatchProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(final String... args) {
+
+        final SwingBatchProcessor processor = new SwingBatchProcessor(
+                new SwingSearchService(),
+                this.properties.getThreads(),
+                this.properties.getQueueCapacity()
+        );
+
+        final SwingBatchReport report = processor.process(
+                Paths.get(this.properties.getDirectory()),
+                this.properties.getGlob(),
+                this.properties::toQueries,
+                SwingBatchRunner::log
+        );
+
+        LOGGER.info("Swing batch finished: {}", report);
+    }
+
+    private static void log(final SwingFileResult result) {
+
+        if (!result.isSuccessful()) {
+            LOGGER.warn("{}: {}", result.getPath(), result.getError().toString());
+            return;
+        }
+
+        final StringBuilder line = new StringBuilder();
+        for (final SwingQueryResult queryResult : result.getResults()) {
+            line.append(line.length() == 0 ? "" : ", ").append(
+                    queryResult.getWindows() != null ? Arrays.deepToString(queryResult.getWindows()) : queryResult.getIndex()
+            );
+        }
+
+        LOGGER.info("{} ({} samples): [{}]", result.getPath(), result.getSampleCount(), line);
+    }
+}
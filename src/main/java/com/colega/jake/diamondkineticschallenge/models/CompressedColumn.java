@@ -0,0 +1,138 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/*
+ * Column of a mapped swing archive, stored as fixed-size compressed blocks. The block headers form the column's zone
+ * map, so searches skip or accept whole blocks and decode only the rest with decodeBlock. Random access through get
+ * decodes the block it falls in.
+ */
+public final class CompressedColumn extends SwingColumn {
+
+    // Last block decoded by get, replaced as a whole so concurrent readers never see a half decoded block
+    private static final class DecodedBlock {
+
+        private final int block;
+        private final double[] values;
+
+        private DecodedBlock(final int block, final double[] values) {
+            this.block = block;
+            this.values = values;
+        }
+    }
+
+    private final ByteBuffer file;
+    private final int size;
+    private final int blockSize;
+    private final int[] offsets;
+    private final byte[] encodings;
+    private final SwingZoneMap zoneMap;
+
+    private volatile DecodedBlock decodedBlock;
+
+    CompressedColumn(
+            final ByteBuffer file,
+            final int size,
+            final int blockSize,
+            final int[] offsets,
+            final byte[] encodings,
+            final SwingZoneMap zoneMap
+    ) {
+        this.file = file;
+        this.size = size;
+        this.blockSize = blockSize;
+        this.offsets = offsets;
+        this.encodings = encodings;
+        this.zoneMap = zoneMap;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(final int index) {
+
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index (" + index + ") out of bounds for " + this.size + " samples");
+        }
+
+        final int block = index / this.blockSize;
+        DecodedBlock decoded = this.decodedBlock;
+        if (decoded == null || decoded.block != block) {
+            final double[] values = new double[this.blockSize];
+            this.decodeBlock(block, values);
+            decoded = new DecodedBlock(block, values);
+            this.decodedBlock = decoded;
+        }
+
+        return decoded.values[index - block * this.blockSize];
+    }
+
+    @Override
+    public SwingEncoding getEncoding() {
+        return SwingEncoding.COMPRESSED;
+    }
+
+    // Decoded copy, there is no double view over compressed storage
+    @Override
+    public DoubleBuffer getView() {
+        return DoubleBuffer.wrap(this.toArray()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void copyTo(final int index, final double[] destination, final int offset, final int length) {
+
+        if (length == 0) {
+            return;
+        }
+
+        final double[] values = new double[this.blockSize];
+        final int last = (index + length - 1) / this.blockSize;
+        for (int block = index / this.blockSize; block <= last; block++) {
+
+            final int blockBegin = block * this.blockSize;
+            final int from = Integer.max(index, blockBegin);
+            final int to = Integer.min(index + length, blockBegin + this.getBlockLength(block));
+
+            this.decodeBlock(block, values);
+            System.arraycopy(values, from - blockBegin, destination, offset + from - index, to - from);
+        }
+    }
+
+    @Override
+    public double[] toArray() {
+
+        final double[] values = new double[this.size];
+        this.copyTo(0, values, 0, values.length);
+
+        return values;
+    }
+
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    public int getBlockCount() {
+        return this.offsets.length;
+    }
+
+    // Number of samples in the block, only the last block can be short
+    public int getBlockLength(final int block) {
+        return Integer.min(this.blockSize, this.size - block * this.blockSize);
+    }
+
+    // Min and max of every block, read from the block headers
+    public SwingZoneMap getZoneMap() {
+        return this.zoneMap;
+    }
+
+    // Decodes the samples of the block into destination[0, getBlockLength(block))
+    public void decodeBlock(final int block, final double[] destination) {
+        SwingArchiveFormat.decode(
+                this.file, this.offsets[block], this.encodings[block], destination, this.getBlockLength(block)
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.DoubleBuffer;
+
+public final class DoubleArrayColumn extends SwingColumn {
+
+    private final double[] data;
+
+    public DoubleArrayColumn(final double[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public int size() {
+        return this.data.length;
+    }
+
+    @Override
+    public double get(final int index) {
+        return this.data[index];
+    }
+
+    @Override
+    public SwingEncoding getEncoding() {
+        return SwingEncoding.FLOAT64;
+    }
+
+    @Override
+    public DoubleBuffer getView() {
+        return DoubleBuffer.wrap(this.data).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void copyTo(final int index, final double[] destination, final int offset, final int length) {
+        System.arraycopy(this.data, index, destination, offset, length);
+    }
+
+    @Override
+    public double[] toArray() {
+        return this.data.clone();
+    }
+
+    // Backing array of the column, shared with this column and must not be modified
+    public double[] getSharedData() {
+        return this.data;
+    }
+}
@@ -0,0 +1,38 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.DoubleBuffer;
+
+// Column served from a buffer outside the heap, e.g. a memory-mapped swing file
+public final class DoubleBufferColumn extends SwingColumn {
+
+    private final DoubleBuffer data;
+
+    public DoubleBufferColumn(final DoubleBuffer data) {
+        this.data = data.slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public int size() {
+        return this.data.limit();
+    }
+
+    @Override
+    public double get(final int index) {
+        return this.data.get(index);
+    }
+
+    @Override
+    public SwingEncoding getEncoding() {
+        return SwingEncoding.FLOAT64;
+    }
+
+    @Override
+    public DoubleBuffer getView() {
+        return this.data.duplicate();
+    }
+
+    // Backing buffer of the column, only absolute reads may be used on it
+    public DoubleBuffer getSharedBuffer() {
+        return this.data;
+    }
+}
@@ -0,0 +1,81 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.DoubleBuffer;
+
+// Column stored as floats, half the memory of a double column at about 7 significant digits
+public final class FloatArrayColumn extends SwingColumn {
+
+    private final float[] data;
+
+    public FloatArrayColumn(final float[] data) {
+        this.data = data;
+    }
+
+    public static FloatArrayColumn encode(final SwingColumn column) {
+
+        final float[] data = new float[column.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) column.get(i);
+        }
+
+        return new FloatArrayColumn(data);
+    }
+
+    @Override
+    public int size() {
+        return this.data.length;
+    }
+
+    @Override
+    public double get(final int index) {
+        return this.data[index];
+    }
+
+    @Override
+    public SwingEncoding getEncoding() {
+        return SwingEncoding.FLOAT32;
+    }
+
+    // Widened copy, there is no double view over float storage
+    @Override
+    public DoubleBuffer getView() {
+        return DoubleBuffer.wrap(this.toArray()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void copyTo(final int index, final double[] destination, final int offset, final int length) {
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = this.data[index + i];
+        }
+    }
+
+    @Override
+    public double[] toArray() {
+
+        final double[] values = new double[this.data.length];
+        this.copyTo(0, values, 0, values.length);
+
+        return values;
+    }
+
+    // Backing array of the column, shared with this column and must not be modified
+    public float[] getSharedData() {
+        return this.data;
+    }
+
+    // Float f such that value > f exactly when the stored value widened to double is > threshold
+    public static float lowerBound(final double threshold) {
+
+        final float bound = (float) threshold;
+
+        return bound > threshold ? Math.nextDown(bound) : bound;
+    }
+
+    // Float f such that value < f exactly when the stored value widened to double is < threshold
+    public static float upperBound(final double threshold) {
+
+        final float bound = (float) threshold;
+
+        return bound < threshold ? Math.nextUp(bound) : bound;
+    }
+}
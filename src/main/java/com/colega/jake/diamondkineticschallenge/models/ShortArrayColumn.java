@@ -0,0 +1,153 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.DoubleBuffer;
+
+/*
+ * Column stored as 16 bit fixed point, a quarter of the memory of a double column. Sample i is data[i] * scale, the
+ * scale is chosen so the largest magnitude in the channel maps to MAX_RAW. NaN is kept as the NAN_RAW sentinel,
+ * which sits below every encodable value so it fails every lower bound; infinities cannot be encoded. Samples are
+ * never clamped: encoding with a given scale throws for a sample that rounds outside [MIN_RAW, MAX_RAW].
+ */
+public final class ShortArrayColumn extends SwingColumn {
+
+    public static final short NAN_RAW = Short.MIN_VALUE;
+    public static final int MIN_RAW = -Short.MAX_VALUE;
+    public static final int MAX_RAW = Short.MAX_VALUE;
+
+    private final short[] data;
+    private final double scale;
+
+    public ShortArrayColumn(final short[] data, final double scale) {
+        if (!(scale > 0) || Double.isInfinite(scale)) {
+            throw new IllegalArgumentException("scale (" + scale + ") is not a positive finite number");
+        }
+        this.data = data;
+        this.scale = scale;
+    }
+
+    public static ShortArrayColumn encode(final SwingColumn column) {
+
+        double maxMagnitude = 0;
+        for (int i = 0; i < column.size(); i++) {
+            final double value = column.get(i);
+            if (Double.isInfinite(value)) {
+                throw new IllegalArgumentException("Sample " + i + " (" + value + ") cannot be stored as INT16");
+            }
+            if (!Double.isNaN(value)) {
+                maxMagnitude = Math.max(maxMagnitude, Math.abs(value));
+            }
+        }
+
+        return encode(column, maxMagnitude > 0 ? maxMagnitude / MAX_RAW : 1);
+    }
+
+    public static ShortArrayColumn encode(final SwingColumn column, final double scale) {
+
+        final short[] data = new short[column.size()];
+        final ShortArrayColumn encoded = new ShortArrayColumn(data, scale);
+        for (int i = 0; i < data.length; i++) {
+            final double value = column.get(i);
+            if (Double.isNaN(value)) {
+                data[i] = NAN_RAW;
+                continue;
+            }
+            final long raw = Math.round(value / scale);
+            if (Double.isInfinite(value) || raw < MIN_RAW || raw > MAX_RAW) {
+                throw new IllegalArgumentException(
+                        "Sample " + i + " (" + value + ") cannot be stored as INT16 with scale " + scale
+                );
+            }
+            data[i] = (short) raw;
+        }
+
+        return encoded;
+    }
+
+    @Override
+    public int size() {
+        return this.data.length;
+    }
+
+    @Override
+    public double get(final int index) {
+        return this.decode(this.data[index]);
+    }
+
+    @Override
+    public SwingEncoding getEncoding() {
+        return SwingEncoding.INT16;
+    }
+
+    // Decoded copy, there is no double view over fixed point storage
+    @Override
+    public DoubleBuffer getView() {
+        return DoubleBuffer.wrap(this.toArray()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void copyTo(final int index, final double[] destination, final int offset, final int length) {
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = this.decode(this.data[index + i]);
+        }
+    }
+
+    @Override
+    public double[] toArray() {
+
+        final double[] values = new double[this.data.length];
+        this.copyTo(0, values, 0, values.length);
+
+        return values;
+    }
+
+    // Backing array of the column, shared with this column and must not be modified
+    public short[] getSharedData() {
+        return this.data;
+    }
+
+    public double getScale() {
+        return this.scale;
+    }
+
+    // Raw bound b such that raw > b exactly when the decoded value is > threshold, NAN_RAW never passes
+    public int lowerBound(final double threshold) {
+
+        if (Double.isNaN(threshold)) {
+            return Integer.MAX_VALUE;
+        }
+
+        // Decoding is monotonic, so step from the estimate to the largest raw value decoding to <= threshold
+        int bound = (int) Math.max(MIN_RAW - 1, Math.min(MAX_RAW, Math.floor(threshold / this.scale)));
+        while (bound < MAX_RAW && this.decode(bound + 1) <= threshold) {
+            bound++;
+        }
+        while (bound >= MIN_RAW && this.decode(bound) > threshold) {
+            bound--;
+        }
+
+        return bound;
+    }
+
+    // Raw bound b such that raw < b exactly when the decoded value is < threshold
+    public int upperBound(final double threshold) {
+
+        if (Double.isNaN(threshold)) {
+            return Integer.MIN_VALUE;
+        }
+
+        // Smallest raw value decoding to >= threshold
+        int bound = (int) Math.max(MIN_RAW, Math.min(MAX_RAW + 1, Math.ceil(threshold / this.scale)));
+        while (bound > MIN_RAW && this.decode(bound - 1) >= threshold) {
+            bound--;
+        }
+        while (bound <= MAX_RAW && this.decode(bound) < threshold) {
+            bound++;
+        }
+
+        return bound;
+    }
+
+    private double decode(final int raw) {
+        return raw == NAN_RAW ? Double.NaN : raw * this.scale;
+    }
+}
@@ -1,110 +1,475 @@
 package com.colega.jake.diamondkineticschallenge.models;
 
 import com.colega.jake.diamondkineticschallenge.exceptions.SwingDataNotFoundException;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.RealMatrix;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class Swing {
 
-    private RealMatrix data;
+    private static final int DERIVE_BLOCK_SIZE = 1 << 12;
+    private static final Set<SwingChannel> ALL_CHANNELS = Collections.unmodifiableSet(EnumSet.allOf(SwingChannel.class));
+
+    // Column-major storage, one column per channel, null for channels left out by a projection
+    private SwingColumn[] columns;
+    private int length;
+
+    // Derived channels, computed on first use
+    private final AtomicReferenceArray<SwingColumn> derivedColumns =
+            new AtomicReferenceArray<>(SwingChannel.values().length);
+
+    // Block min/max summaries of FLOAT64 and compressed channels, built on first use so loading reads nothing extra
+    private final AtomicReferenceArray<SwingZoneMap> zoneMaps =
+            new AtomicReferenceArray<>(SwingChannel.values().length);
+
+    // Optional search indexes, attached per channel
+    private final AtomicReferenceArray<SwingColumnIndex> indexes =
+            new AtomicReferenceArray<>(SwingChannel.values().length);
+
+    // Views of a SwingStore keep derived channels in direct buffers and no zone maps, so their heap stays flat
+    private boolean stored;
+
+    // Columns by channel ordinal, null for channels not loaded
+    Swing(final SwingColumn[] columns) {
+        this(columns, false);
+    }
+
+    Swing(final SwingColumn[] columns, final boolean stored) {
+        this.columns = columns;
+        for (final SwingColumn column : columns) {
+            if (column != null) {
+                this.length = column.size();
+                break;
+            }
+        }
+        this.stored = stored;
+    }
 
     public Swing(final String string) {
+        this(string, ALL_CHANNELS);
+    }
+
+    public Swing(final String string, final Set<SwingChannel> projection) {
         try {
-            this.initializeData(CSVParser.parse(string, CSVFormat.DEFAULT));
+            this.initializeData(new StringReader(string), string.length(), projection);
         } catch (final IOException e) {
             throw new SwingDataNotFoundException(e);
         }
     }
 
     public Swing(final File file) {
-        try {
-            this.initializeData(CSVParser.parse(file, Charset.defaultCharset(), CSVFormat.DEFAULT));
+        this(file, ALL_CHANNELS);
+    }
+
+    /*
+     * Loads only the projected channels, plus the sources of projected derived channels. Fields of other channels are
+     * skipped without being parsed or stored, and asking this swing for them throws IllegalArgumentException.
+     */
+    public Swing(final File file, final Set<SwingChannel> projection) {
+        try (final Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), Charset.defaultCharset())) {
+            this.initializeData(reader, file.length(), projection);
         } catch (final IOException e) {
             throw new SwingDataNotFoundException(e);
         }
     }
 
     public Swing(final Path path) {
-        try {
-            this.initializeData(CSVParser.parse(path, Charset.defaultCharset(), CSVFormat.DEFAULT));
+        this(path, ALL_CHANNELS);
+    }
+
+    public Swing(final Path path, final Set<SwingChannel> projection) {
+        try (final Reader reader = new InputStreamReader(Files.newInputStream(path), Charset.defaultCharset())) {
+            this.initializeData(reader, Files.size(path), projection);
         } catch (final IOException e) {
             throw new SwingDataNotFoundException(e);
         }
     }
 
+    // The stream belongs to the caller and is left open
     public Swing(final InputStream inputStream) {
+        this(inputStream, ALL_CHANNELS);
+    }
+
+    public Swing(final InputStream inputStream, final Set<SwingChannel> projection) {
+        try {
+            this.initializeData(
+                    new InputStreamReader(inputStream, Charset.defaultCharset()), inputStream.available(), projection
+            );
+        } catch (final IOException e) {
+            throw new SwingDataNotFoundException(e);
+        }
+    }
+
+    // Maps a file written by writeBinary, channel data is served from the mapping and never copied to the heap
+    public static Swing mapBinary(final Path path) {
+        return mapBinary(path, ALL_CHANNELS);
+    }
+
+    // Maps only the projected channels, see Swing(Path, Set)
+    public static Swing mapBinary(final Path path, final Set<SwingChannel> projection) {
+        try {
+            return new Swing(SwingBinaryFormat.map(path, rawChannelsOf(projection)));
+        } catch (final IOException e) {
+            throw new SwingDataNotFoundException(e);
+        }
+    }
+
+    // Writes the loaded raw channels
+    public void writeBinary(final Path path) {
         try {
-            this.initializeData(CSVParser.parse(inputStream, Charset.defaultCharset(), CSVFormat.DEFAULT));
+            SwingBinaryFormat.write(this.columns, this.length, path);
         } catch (final IOException e) {
             throw new SwingDataNotFoundException(e);
         }
     }
 
-    private void initializeData(final CSVParser csvParser) {
+    // Maps a file written by writeArchive, blocks are decoded from the mapping only when they are read
+    public static Swing mapArchive(final Path path) {
+        return mapArchive(path, ALL_CHANNELS);
+    }
 
-        final List<CSVRecord> csvRecordList;
+    public static Swing mapArchive(final Path path, final Set<SwingChannel> projection) {
         try {
-            csvRecordList = csvParser.getRecords();
+            return new Swing(SwingArchiveFormat.map(path, rawChannelsOf(projection)));
         } catch (final IOException e) {
             throw new SwingDataNotFoundException(e);
         }
+    }
+
+    // Writes the loaded raw channels as lossless compressed blocks with a min and max per block
+    public void writeArchive(final Path path) {
+        try {
+            SwingArchiveFormat.write(this.columns, this.length, path);
+        } catch (final IOException e) {
+            throw new SwingDataNotFoundException(e);
+        }
+    }
+
+    private void initializeData(final Reader reader, final long sizeHint, final Set<SwingChannel> projection) throws IOException {
+
+        final double[][] rawColumns = new SwingCsvReader(reader).read(sizeHint, rawChannelsOf(projection));
+
+        this.columns = new SwingColumn[rawColumns.length];
+        for (int i = 0; i < rawColumns.length; i++) {
+            if (rawColumns[i] != null) {
+                this.columns[i] = new DoubleArrayColumn(rawColumns[i]);
+                this.length = rawColumns[i].length;
+            }
+        }
+    }
+
+    // Raw channels to load for a projection, derived channels are replaced by their sources
+    private static Set<SwingChannel> rawChannelsOf(final Set<SwingChannel> projection) {
+
+        if (projection.isEmpty()) {
+            throw new IllegalArgumentException("Projection selects no channels");
+        }
+
+        final Set<SwingChannel> channels = EnumSet.noneOf(SwingChannel.class);
+        for (final SwingChannel channel : projection) {
+            if (channel.isDerived()) {
+                channels.addAll(Arrays.asList(channel.getSources()));
+            } else {
+                channels.add(channel);
+            }
+        }
+
+        return channels;
+    }
 
-        final double[][] rawData = new double[csvRecordList.size()][];
+    // Narrower encodings are left without, their compact kernels already scan fast enough
+    private static SwingZoneMap zoneMapOf(final SwingColumn column) {
+
+        if (column instanceof CompressedColumn) {
+            return ((CompressedColumn) column).getZoneMap();
+        }
 
-        int i = 0;
-        for (final CSVRecord csvRecord : csvRecordList) {
+        return column.getEncoding() == SwingEncoding.FLOAT64 ? new SwingZoneMap(column) : null;
+    }
+
+    // Copy of this swing with every channel stored in the given encoding, see withEncoding(SwingChannel, SwingEncoding)
+    public Swing withEncoding(final SwingEncoding encoding) {
+
+        final SwingColumn[] encoded = new SwingColumn[this.columns.length];
+        for (final SwingChannel channel : SwingChannel.rawValues()) {
+            if (this.columns[channel.ordinal()] != null) {
+                encoded[channel.ordinal()] = encode(this.columns[channel.ordinal()], encoding);
+            }
+        }
+
+        return new Swing(encoded);
+    }
+
+    /*
+     * Copy of this swing with the channel stored in the given encoding, other channels are shared. Narrower encodings
+     * round the samples once here, searches then run on the compact data and answer exactly for the rounded values.
+     * INT16 scales the channel to its largest finite magnitude, so no sample is clamped, and throws
+     * IllegalArgumentException for a channel holding an infinity. Search indexes and derived channels are not
+     * carried over.
+     */
+    public Swing withEncoding(final SwingChannel channel, final SwingEncoding encoding) {
+
+        if (channel.isDerived()) {
+            throw new IllegalArgumentException(channel + " is derived and cannot be encoded");
+        }
+
+        final SwingColumn[] encoded = this.columns.clone();
+        encoded[channel.ordinal()] = encode(this.getColumn(channel), encoding);
+
+        return new Swing(encoded);
+    }
 
-            rawData[i] = new double[]{
-                    Double.parseDouble(csvRecord.get(0)),
-                    Double.parseDouble(csvRecord.get(1)),
-                    Double.parseDouble(csvRecord.get(2)),
-                    Double.parseDouble(csvRecord.get(3)),
-                    Double.parseDouble(csvRecord.get(4)),
-                    Double.parseDouble(csvRecord.get(5)),
-                    Double.parseDouble(csvRecord.get(6))
-            };
+    private static SwingColumn encode(final SwingColumn column, final SwingEncoding encoding) {
 
-            i++;
+        if (column.getEncoding() == encoding) {
+            return column;
         }
 
-        this.data = new Array2DRowRealMatrix(rawData);
+        switch (encoding) {
+            case FLOAT64:
+                return new DoubleArrayColumn(column.toArray());
+            case FLOAT32:
+                return FloatArrayColumn.encode(column);
+            case INT16:
+                return ShortArrayColumn.encode(column);
+            case COMPRESSED:
+                throw new IllegalArgumentException("Compressed columns are only read from archives, see writeArchive");
+            default:
+                throw new IllegalArgumentException("Unknown encoding " + encoding);
+        }
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    // Time of the sample, read in place without copying the time column
+    public double getTime(final int index) {
+        return this.getColumn(SwingChannel.TIME).get(index);
+    }
+
+    // First index whose time is at or after the given time, getLength() when there is none. Binary search, the time
+    // column is expected to be non-decreasing
+    public int indexOfTime(final double time) {
+
+        final SwingColumn timeColumn = this.getColumn(SwingChannel.TIME);
+
+        int low = 0;
+        int high = timeColumn.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (timeColumn.get(middle) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    public SwingColumn getColumn(final SwingChannel channel) {
+
+        if (channel.isDerived()) {
+            return this.getDerivedColumn(channel);
+        }
+
+        final SwingColumn column = this.columns[channel.ordinal()];
+        if (column == null) {
+            throw new IllegalArgumentException(channel + " was not loaded");
+        }
+
+        return column;
+    }
+
+    // Whether the channel can be read, false for channels left out by a projection
+    public boolean isLoaded(final SwingChannel channel) {
+
+        if (channel.isDerived()) {
+            for (final SwingChannel source : channel.getSources()) {
+                if (this.columns[source.ordinal()] == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return this.columns[channel.ordinal()] != null;
+    }
+
+    // Computed once in a single pass over the sources, racing threads agree on the first column published
+    private SwingColumn getDerivedColumn(final SwingChannel channel) {
+
+        final SwingColumn column = this.derivedColumns.get(channel.ordinal());
+        if (column != null) {
+            return column;
+        }
+
+        final SwingChannel[] sources = channel.getSources();
+        final SwingColumn derived = this.stored
+                ? directMagnitude(this.getColumn(sources[0]), this.getColumn(sources[1]), this.getColumn(sources[2]))
+                : magnitude(this.getColumn(sources[0]), this.getColumn(sources[1]), this.getColumn(sources[2]));
+        this.derivedColumns.compareAndSet(channel.ordinal(), null, derived);
+
+        return this.derivedColumns.get(channel.ordinal());
+    }
+
+    // Magnitude written a block at a time to a direct buffer, off the heap
+    private static SwingColumn directMagnitude(final SwingColumn x, final SwingColumn y, final SwingColumn z) {
+
+        final DoubleBuffer magnitude = ByteBuffer
+                .allocateDirect(x.size() * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+
+        final double[] xs = new double[DERIVE_BLOCK_SIZE];
+        final double[] ys = new double[DERIVE_BLOCK_SIZE];
+        final double[] zs = new double[DERIVE_BLOCK_SIZE];
+        for (int begin = 0; begin < x.size(); begin += DERIVE_BLOCK_SIZE) {
+            final int length = Integer.min(DERIVE_BLOCK_SIZE, x.size() - begin);
+            x.copyTo(begin, xs, 0, length);
+            y.copyTo(begin, ys, 0, length);
+            z.copyTo(begin, zs, 0, length);
+            for (int i = 0; i < length; i++) {
+                xs[i] = Math.sqrt(xs[i] * xs[i] + ys[i] * ys[i] + zs[i] * zs[i]);
+            }
+            magnitude.put(xs, 0, length);
+        }
+        magnitude.flip();
+
+        return new DoubleBufferColumn(magnitude);
+    }
+
+    private static SwingColumn magnitude(final SwingColumn x, final SwingColumn y, final SwingColumn z) {
+
+        final double[] magnitude = new double[x.size()];
+
+        if (x instanceof DoubleArrayColumn && y instanceof DoubleArrayColumn && z instanceof DoubleArrayColumn) {
+            final double[] xs = ((DoubleArrayColumn) x).getSharedData();
+            final double[] ys = ((DoubleArrayColumn) y).getSharedData();
+            final double[] zs = ((DoubleArrayColumn) z).getSharedData();
+            for (int i = 0; i < magnitude.length; i++) {
+                magnitude[i] = Math.sqrt(xs[i] * xs[i] + ys[i] * ys[i] + zs[i] * zs[i]);
+            }
+            return new DoubleArrayColumn(magnitude);
+        }
+
+        // Other storage is widened a block at a time
+        final double[] xs = new double[DERIVE_BLOCK_SIZE];
+        final double[] ys = new double[DERIVE_BLOCK_SIZE];
+        final double[] zs = new double[DERIVE_BLOCK_SIZE];
+        for (int begin = 0; begin < magnitude.length; begin += DERIVE_BLOCK_SIZE) {
+            final int length = Integer.min(DERIVE_BLOCK_SIZE, magnitude.length - begin);
+            x.copyTo(begin, xs, 0, length);
+            y.copyTo(begin, ys, 0, length);
+            z.copyTo(begin, zs, 0, length);
+            for (int i = 0; i < length; i++) {
+                magnitude[begin + i] = Math.sqrt(xs[i] * xs[i] + ys[i] * ys[i] + zs[i] * zs[i]);
+            }
+        }
+
+        return new DoubleArrayColumn(magnitude);
+    }
+
+    /*
+     * Block min/max summary of the channel, null when it has none and searches scan every sample. For a FLOAT64 channel
+     * the first call only sets the summary up, its blocks are read as searches first reach them. Racing threads agree
+     * on the first one published.
+     */
+    public SwingZoneMap getZoneMap(final SwingChannel channel) {
+
+        final SwingZoneMap zoneMap = this.zoneMaps.get(channel.ordinal());
+        if (zoneMap != null || this.stored || !this.isLoaded(channel)) {
+            return zoneMap;
+        }
+
+        final SwingZoneMap built = zoneMapOf(this.getColumn(channel));
+        if (built == null) {
+            return null;
+        }
+        this.zoneMaps.compareAndSet(channel.ordinal(), null, built);
+
+        return this.zoneMaps.get(channel.ordinal());
+    }
+
+    // Builds the search index of the channel once, later calls return the attached index
+    public SwingColumnIndex indexChannel(final SwingChannel channel) {
+
+        final SwingColumnIndex index = this.indexes.get(channel.ordinal());
+        if (index != null) {
+            return index;
+        }
+
+        this.indexes.compareAndSet(channel.ordinal(), null, new SwingColumnIndex(this.getColumn(channel)));
+
+        return this.indexes.get(channel.ordinal());
+    }
+
+    // Attached search index of the channel, null when the channel has not been indexed
+    public SwingColumnIndex getIndex(final SwingChannel channel) {
+        return this.indexes.get(channel.ordinal());
+    }
+
+    // Read-only view over the channel, no copy is made for FLOAT64 channels
+    public DoubleBuffer getDataView(final SwingChannel channel) {
+        return this.getColumn(channel).getView();
+    }
+
+    // Backing array of the channel, shared with this swing and must not be modified
+    public double[] getSharedData(final SwingChannel channel) {
+
+        final SwingColumn column = this.getColumn(channel);
+        if (!(column instanceof DoubleArrayColumn)) {
+            throw new UnsupportedOperationException(channel + " is not stored in a heap double array");
+        }
+
+        return ((DoubleArrayColumn) column).getSharedData();
+    }
+
+    public double[] getData(final SwingChannel channel) {
+        return this.getColumn(channel).toArray();
     }
 
     public double[] getTimeData() {
-        return this.data.getColumn(0);
+        return this.getData(SwingChannel.TIME);
     }
 
     public double[] getAcceleratorXData() {
-        return this.data.getColumn(1);
+        return this.getData(SwingChannel.ACCELERATOR_X);
     }
 
     public double[] getAcceleratorYData() {
-        return this.data.getColumn(2);
+        return this.getData(SwingChannel.ACCELERATOR_Y);
     }
 
     public double[] getAcceleratorZData() {
-        return this.data.getColumn(3);
+        return this.getData(SwingChannel.ACCELERATOR_Z);
     }
 
     public double[] getGyroscropeXData() {
-        return this.data.getColumn(4);
+        return this.getData(SwingChannel.GYROSCOPE_X);
     }
 
     public double[] getGyroscropeYData() {
-        return this.data.getColumn(5);
+        return this.getData(SwingChannel.GYROSCOPE_Y);
     }
 
     public double[] getGyroscropeZData() {
-        return this.data.getColumn(6);
+        return this.getData(SwingChannel.GYROSCOPE_Z);
     }
 }
@@ -0,0 +1,550 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+/*
+ * Block-compressed swing archive, all header values little-endian:
+ *
+ *   int    magic ("DKSA")
+ *   int    version
+ *   int    channel count
+ *   int    samples per block
+ *   long   sample count
+ *   long   reserved
+ *   per channel:
+ *     int  channel column, as in the CSV record
+ *     int  block count
+ *     long offset of the channel's block table from the start of the file
+ *   per channel, a block table with per block:
+ *     long offset of the encoded block from the start of the file
+ *     int  encoded length in bytes
+ *     int  flags, the block encoding in the low byte and FLAG_NAN when the block holds NaN
+ *     double min, double max of the block's non-NaN samples
+ *   encoded blocks
+ *
+ * Every block is encoded the way that comes out smallest, all of them are lossless:
+ *
+ *   XOR             Gorilla-style, each double XORed with the previous one and only the meaningful bits kept
+ *   DELTA           values that are decimals with at most 15 fraction digits, as scaled integers whose deltas
+ *                   are bit packed at the block's widest width
+ *   DELTA_OF_DELTA  as DELTA but packing the deltas of the deltas, which suits the evenly sampled time column
+ */
+final class SwingArchiveFormat {
+
+    static final int MAGIC = 0x4153_4B44;
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 1 << 10;
+
+    static final int ENCODING_XOR = 0;
+    static final int ENCODING_DELTA = 1;
+    static final int ENCODING_DELTA_OF_DELTA = 2;
+    static final int FLAG_NAN = 1 << 8;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int CHANNEL_ENTRY_SIZE = 16;
+    private static final int BLOCK_ENTRY_SIZE = 32;
+
+    // Scaled integers stay exact doubles up to 2^53, and m / 10^k then rounds exactly as the CSV reader does
+    private static final long MAX_EXACT_INTEGER = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private SwingArchiveFormat() {}
+
+    // Columns by channel ordinal, channels without a column are left out of the file
+    static void write(final SwingColumn[] columns, final int sampleCount, final Path path) throws IOException {
+
+        final SwingChannel[] channels = SwingBinaryFormat.loadedChannels(columns);
+        final int blockCount = (sampleCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        final byte[][][] blocks = new byte[channels.length][blockCount][];
+        final ByteBuffer tables = ByteBuffer
+                .allocate(channels.length * blockCount * BLOCK_ENTRY_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        long offset = HEADER_SIZE + (long) CHANNEL_ENTRY_SIZE * channels.length + tables.capacity();
+        final double[] values = new double[BLOCK_SIZE];
+        for (int c = 0; c < channels.length; c++) {
+            for (int block = 0; block < blockCount; block++) {
+
+                final int length = Integer.min(BLOCK_SIZE, sampleCount - block * BLOCK_SIZE);
+                columns[channels[c].ordinal()].copyTo(block * BLOCK_SIZE, values, 0, length);
+
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                boolean nan = false;
+                for (int i = 0; i < length; i++) {
+                    if (Double.isNaN(values[i])) {
+                        nan = true;
+                    } else {
+                        min = Math.min(min, values[i]);
+                        max = Math.max(max, values[i]);
+                    }
+                }
+
+                final int encoding = nan ? ENCODING_XOR : smallestEncoding(values, length);
+                final byte[] encoded = encode(values, length, encoding);
+                blocks[c][block] = encoded;
+
+                tables.putLong(offset).putInt(encoded.length).putInt(encoding | (nan ? FLAG_NAN : 0)).putDouble(min).putDouble(max);
+                offset += encoded.length;
+            }
+        }
+        tables.flip();
+
+        final ByteBuffer header = ByteBuffer
+                .allocate(HEADER_SIZE + CHANNEL_ENTRY_SIZE * channels.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(channels.length).putInt(BLOCK_SIZE).putLong(sampleCount).putLong(0);
+        for (int c = 0; c < channels.length; c++) {
+            header.putInt(channels[c].getColumn())
+                    .putInt(blockCount)
+                    .putLong(header.capacity() + (long) c * blockCount * BLOCK_ENTRY_SIZE);
+        }
+        header.flip();
+
+        try (final FileChannel fileChannel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        )) {
+
+            long position = writeFully(fileChannel, header, 0);
+            position += writeFully(fileChannel, tables, position);
+            for (final byte[][] channelBlocks : blocks) {
+                for (final byte[] encoded : channelBlocks) {
+                    position += writeFully(fileChannel, ByteBuffer.wrap(encoded), position);
+                }
+            }
+        }
+    }
+
+    // Maps the channels in the projection only, others are left null
+    static SwingColumn[] map(final Path path, final Set<SwingChannel> projection) throws IOException {
+
+        try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            if (fileChannel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large for a swing archive");
+            }
+            if (fileChannel.size() < HEADER_SIZE) {
+                throw new IOException("Swing archive is truncated");
+            }
+
+            final ByteBuffer file = fileChannel
+                    .map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            if (file.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a swing archive");
+            }
+            final int version = file.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported swing archive version " + version);
+            }
+            final int channelCount = file.getInt(8);
+            final int blockSize = file.getInt(12);
+            final long sampleCount = file.getLong(16);
+            if (blockSize <= 0 || sampleCount < 0 || sampleCount > Integer.MAX_VALUE) {
+                throw new IOException("Unsupported block size " + blockSize + " or sample count " + sampleCount);
+            }
+            final int blockCount = (int) ((sampleCount + blockSize - 1) / blockSize);
+
+            final SwingChannel[] channels = SwingChannel.rawValues();
+            if (channelCount < 0 || channelCount > channels.length) {
+                throw new IOException("Unsupported channel count " + channelCount);
+            }
+            if (HEADER_SIZE + (long) CHANNEL_ENTRY_SIZE * channelCount > file.limit()) {
+                throw new IOException("Swing archive is truncated");
+            }
+            final SwingColumn[] columns = new SwingColumn[channels.length];
+            final int[] seenColumns = new int[channelCount];
+
+            for (int i = 0; i < channelCount; i++) {
+
+                final int entry = HEADER_SIZE + CHANNEL_ENTRY_SIZE * i;
+                final int column = file.getInt(entry);
+                for (int seen = 0; seen < i; seen++) {
+                    if (seenColumns[seen] == column) {
+                        throw new IOException("Duplicate entry for column " + column);
+                    }
+                }
+                seenColumns[i] = column;
+                if (file.getInt(entry + 4) != blockCount) {
+                    throw new IOException("Unexpected block count for column " + column);
+                }
+                final long tableOffset = file.getLong(entry + 8);
+                if (tableOffset < 0 || tableOffset + (long) blockCount * BLOCK_ENTRY_SIZE > file.limit()) {
+                    throw new IOException("Swing archive is truncated");
+                }
+
+                final int[] offsets = new int[blockCount];
+                final byte[] encodings = new byte[blockCount];
+                final boolean[] nans = new boolean[blockCount];
+                final double[] mins = new double[blockCount];
+                final double[] maxs = new double[blockCount];
+                for (int block = 0; block < blockCount; block++) {
+
+                    final int position = (int) tableOffset + block * BLOCK_ENTRY_SIZE;
+                    final long offset = file.getLong(position);
+                    final int length = file.getInt(position + 8);
+                    final int flags = file.getInt(position + 12);
+                    if (offset < 0 || length < 0 || offset + length > file.limit()) {
+                        throw new IOException("Swing archive is truncated");
+                    }
+                    if ((flags & 0xFF) > ENCODING_DELTA_OF_DELTA) {
+                        throw new IOException("Unsupported encoding " + (flags & 0xFF) + " for column " + column);
+                    }
+
+                    offsets[block] = (int) offset;
+                    encodings[block] = (byte) (flags & 0xFF);
+                    nans[block] = (flags & FLAG_NAN) != 0;
+                    mins[block] = file.getDouble(position + 16);
+                    maxs[block] = file.getDouble(position + 24);
+                }
+
+                for (final SwingChannel channel : channels) {
+                    if (channel.getColumn() == column && projection.contains(channel)) {
+                        columns[channel.ordinal()] = new CompressedColumn(
+                                file,
+                                (int) sampleCount,
+                                blockSize,
+                                offsets,
+                                encodings,
+                                new SwingZoneMap((int) sampleCount, blockSize, mins, maxs, nans)
+                        );
+                    }
+                }
+            }
+
+            for (final SwingChannel channel : channels) {
+                if (columns[channel.ordinal()] == null && projection.contains(channel)) {
+                    throw new IOException(path + " has no data for " + channel);
+                }
+            }
+
+            return columns;
+        }
+    }
+
+    // Decodes length samples of the block starting at offset into destination[0, length)
+    static void decode(
+            final ByteBuffer file,
+            final int offset,
+            final int encoding,
+            final double[] destination,
+            final int length
+    ) {
+
+        final BitReader reader = new BitReader(file, offset);
+
+        if (encoding == ENCODING_XOR) {
+
+            long previous = reader.read(64);
+            destination[0] = Double.longBitsToDouble(previous);
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 1; i < length; i++) {
+                if (reader.read(1) != 0) {
+                    if (reader.read(1) != 0) {
+                        leading = (int) reader.read(5);
+                        final int significant = (int) reader.read(6) + 1;
+                        trailing = 64 - leading - significant;
+                    }
+                    previous ^= reader.read(64 - leading - trailing) << trailing;
+                }
+                destination[i] = Double.longBitsToDouble(previous);
+            }
+            return;
+        }
+
+        final double scale = POWERS_OF_TEN[(int) reader.read(4)];
+        long value = reader.read(64);
+        destination[0] = value / scale;
+        if (length == 1) {
+            return;
+        }
+
+        if (encoding == ENCODING_DELTA) {
+            final int width = (int) reader.read(7);
+            for (int i = 1; i < length; i++) {
+                value += unzigzag(reader.read(width));
+                destination[i] = value / scale;
+            }
+            return;
+        }
+
+        long delta = reader.read(64);
+        value += delta;
+        destination[1] = value / scale;
+        final int width = (int) reader.read(7);
+        for (int i = 2; i < length; i++) {
+            delta += unzigzag(reader.read(width));
+            value += delta;
+            destination[i] = value / scale;
+        }
+    }
+
+    // Encoding with the fewest bits, counting the headers encode writes for each
+    private static int smallestEncoding(final double[] values, final int length) {
+
+        final int decimals = decimalsOf(values, length);
+        if (decimals < 0) {
+            return ENCODING_XOR;
+        }
+
+        final long[] integers = new long[length];
+        for (int i = 0; i < length; i++) {
+            integers[i] = Math.round(values[i] * POWERS_OF_TEN[decimals]);
+        }
+
+        final long xorBits = xorBitsOf(values, length);
+        final long deltaBits = 4 + 64 + 7 + (long) (length - 1) * widthOf(integers, length, 1);
+        final long deltaOfDeltaBits = 4 + 64 + 64 + 7 + (long) (length - 2) * widthOf(integers, length, 2);
+
+        if (xorBits <= deltaBits && xorBits <= deltaOfDeltaBits) {
+            return ENCODING_XOR;
+        }
+
+        return deltaOfDeltaBits < deltaBits ? ENCODING_DELTA_OF_DELTA : ENCODING_DELTA;
+    }
+
+    // Bits the XOR encoding writes for the block, following the same control-bit choices as encode
+    private static long xorBitsOf(final double[] values, final int length) {
+
+        long bits = 64;
+        long previous = Double.doubleToRawLongBits(values[0]);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < length; i++) {
+
+            final long current = Double.doubleToRawLongBits(values[i]);
+            final long xor = current ^ previous;
+            previous = current;
+
+            if (xor == 0) {
+                bits += 1;
+                continue;
+            }
+
+            final int newLeading = Integer.min(31, Long.numberOfLeadingZeros(xor));
+            final int newTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                bits += 2;
+            } else {
+                leading = newLeading;
+                trailing = newTrailing;
+                bits += 2 + 5 + 6;
+            }
+            bits += 64 - leading - trailing;
+        }
+
+        return bits;
+    }
+
+    // Fewest fraction digits that reproduce every value exactly, -1 when there are none
+    private static int decimalsOf(final double[] values, final int length) {
+
+        for (int decimals = 0; decimals < POWERS_OF_TEN.length; decimals++) {
+
+            final double scale = POWERS_OF_TEN[decimals];
+            boolean exact = true;
+            for (int i = 0; i < length && exact; i++) {
+                final double scaled = values[i] * scale;
+                final long integer = Math.round(scaled);
+                exact = Math.abs(scaled) < MAX_EXACT_INTEGER
+                        && Double.doubleToRawLongBits(integer / scale) == Double.doubleToRawLongBits(values[i]);
+            }
+
+            if (exact) {
+                return decimals;
+            }
+        }
+
+        return -1;
+    }
+
+    private static byte[] encode(final double[] values, final int length, final int encoding) {
+
+        final BitWriter writer = new BitWriter();
+
+        if (encoding == ENCODING_XOR) {
+
+            long previous = Double.doubleToRawLongBits(values[0]);
+            writer.write(previous, 64);
+            int leading = -1;
+            int trailing = 0;
+            for (int i = 1; i < length; i++) {
+
+                final long bits = Double.doubleToRawLongBits(values[i]);
+                final long xor = bits ^ previous;
+                previous = bits;
+
+                if (xor == 0) {
+                    writer.write(0, 1);
+                    continue;
+                }
+
+                final int newLeading = Integer.min(31, Long.numberOfLeadingZeros(xor));
+                final int newTrailing = Long.numberOfTrailingZeros(xor);
+                if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                    writer.write(0b10, 2);
+                } else {
+                    leading = newLeading;
+                    trailing = newTrailing;
+                    writer.write(0b11, 2);
+                    writer.write(leading, 5);
+                    writer.write(64 - leading - trailing - 1, 6);
+                }
+                writer.write(xor >>> trailing, 64 - leading - trailing);
+            }
+
+            return writer.toByteArray();
+        }
+
+        final int decimals = decimalsOf(values, length);
+        final long[] integers = new long[length];
+        for (int i = 0; i < length; i++) {
+            integers[i] = Math.round(values[i] * POWERS_OF_TEN[decimals]);
+        }
+
+        writer.write(decimals, 4);
+        writer.write(integers[0], 64);
+        if (length == 1) {
+            return writer.toByteArray();
+        }
+
+        if (encoding == ENCODING_DELTA) {
+            final int width = widthOf(integers, length, 1);
+            writer.write(width, 7);
+            for (int i = 1; i < length; i++) {
+                writer.write(zigzag(integers[i] - integers[i - 1]), width);
+            }
+            return writer.toByteArray();
+        }
+
+        writer.write(integers[1] - integers[0], 64);
+        final int width = widthOf(integers, length, 2);
+        writer.write(width, 7);
+        for (int i = 2; i < length; i++) {
+            writer.write(zigzag(integers[i] - 2 * integers[i - 1] + integers[i - 2]), width);
+        }
+
+        return writer.toByteArray();
+    }
+
+    // Bits needed for the widest zigzagged first (order 1) or second (order 2) difference
+    private static int widthOf(final long[] integers, final int length, final int order) {
+
+        long all = 0;
+        for (int i = order; i < length; i++) {
+            final long difference = order == 1
+                    ? integers[i] - integers[i - 1]
+                    : integers[i] - 2 * integers[i - 1] + integers[i - 2];
+            all |= zigzag(difference);
+        }
+
+        return 64 - Long.numberOfLeadingZeros(all);
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeFully(final FileChannel fileChannel, final ByteBuffer buffer, final long position) throws IOException {
+
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += fileChannel.write(buffer, position + written);
+        }
+
+        return written;
+    }
+
+    // Most significant bit first
+    private static final class BitWriter {
+
+        private long[] words = new long[16];
+        private long position;
+
+        private void write(long value, final int bits) {
+
+            if (bits == 0) {
+                return;
+            }
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+
+            final int word = (int) (this.position >>> 6);
+            if (word + 1 >= this.words.length) {
+                this.words = Arrays.copyOf(this.words, this.words.length * 2);
+            }
+
+            final int free = 64 - (int) (this.position & 63);
+            if (bits <= free) {
+                this.words[word] |= value << (free - bits);
+            } else {
+                this.words[word] |= value >>> (bits - free);
+                this.words[word + 1] |= value << (64 - (bits - free));
+            }
+            this.position += bits;
+        }
+
+        private byte[] toByteArray() {
+
+            final byte[] bytes = new byte[(int) ((this.position + 7) >>> 3)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (this.words[i >>> 3] >>> (56 - 8 * (i & 7)));
+            }
+
+            return bytes;
+        }
+    }
+
+    // Reads the bits of a BitWriter back with absolute gets, so readers on one buffer never interfere
+    private static final class BitReader {
+
+        private final ByteBuffer buffer;
+        private int position;
+        private long cache;
+        private int cached;
+
+        private BitReader(final ByteBuffer buffer, final int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private long read(final int bits) {
+
+            if (bits == 0) {
+                return 0;
+            }
+            if (bits > 32) {
+                final long high = this.read(bits - 32);
+                return (high << 32) | this.read(32);
+            }
+
+            while (this.cached < bits) {
+                this.cache = (this.cache << 8) | (this.buffer.get(this.position++) & 0xFF);
+                this.cached += 8;
+            }
+            this.cached -= bits;
+
+            return (this.cache >>> this.cached) & ((1L << bits) - 1);
+        }
+    }
+}
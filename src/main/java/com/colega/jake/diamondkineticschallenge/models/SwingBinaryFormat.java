@@ -0,0 +1,206 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+/*
+ * Binary swing layout, all values little-endian:
+ *
+ *   int    magic ("DKSW")
+ *   int    version
+ *   int    channel count
+ *   int    reserved
+ *   long   sample count
+ *   per channel:
+ *     int  channel column, as in the CSV record
+ *     int  encoding
+ *     long offset of the column block from the start of the file
+ *   column blocks, each sample count values long and 8 byte aligned
+ */
+final class SwingBinaryFormat {
+
+    static final int MAGIC = 0x5753_4B44;
+    static final int VERSION = 1;
+    static final int ENCODING_FLOAT64 = 0;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int CHANNEL_ENTRY_SIZE = 16;
+    private static final int WRITE_CHUNK_VALUES = 1 << 13;
+
+    private SwingBinaryFormat() {}
+
+    // Columns by channel ordinal, channels without a column are left out of the file
+    static void write(final SwingColumn[] columns, final int sampleCount, final Path path) throws IOException {
+
+        final SwingChannel[] channels = loadedChannels(columns);
+
+        final ByteBuffer header = ByteBuffer
+                .allocate(HEADER_SIZE + CHANNEL_ENTRY_SIZE * channels.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(channels.length).putInt(0).putLong(sampleCount);
+
+        long offset = align(header.capacity());
+        for (final SwingChannel channel : channels) {
+            header.putInt(channel.getColumn()).putInt(ENCODING_FLOAT64).putLong(offset);
+            offset = align(offset + (long) sampleCount * Double.BYTES);
+        }
+        header.flip();
+
+        try (final FileChannel fileChannel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        )) {
+
+            writeFully(fileChannel, header, 0);
+
+            final ByteBuffer chunk = ByteBuffer
+                    .allocateDirect(WRITE_CHUNK_VALUES * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            final DoubleBuffer chunkValues = chunk.asDoubleBuffer();
+
+            long position = align(header.limit());
+            for (final SwingChannel channel : channels) {
+
+                final DoubleBuffer view = columns[channel.ordinal()].getView();
+                while (view.hasRemaining()) {
+
+                    final int count = Integer.min(view.remaining(), WRITE_CHUNK_VALUES);
+                    final DoubleBuffer values = view.duplicate();
+                    values.limit(values.position() + count);
+                    view.position(view.position() + count);
+
+                    chunkValues.clear();
+                    chunkValues.put(values);
+                    chunk.clear().limit(count * Double.BYTES);
+
+                    position += writeFully(fileChannel, chunk, position);
+                }
+
+                position = align(position);
+            }
+        }
+    }
+
+    // Maps the channels in the projection only, others are left null
+    static SwingColumn[] map(final Path path, final Set<SwingChannel> projection) throws IOException {
+
+        try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            final ByteBuffer prefix = readFully(fileChannel, 0, HEADER_SIZE);
+            if (prefix.getInt() != MAGIC) {
+                throw new IOException(path + " is not a binary swing file");
+            }
+            final int version = prefix.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary swing version " + version);
+            }
+            final int channelCount = prefix.getInt();
+            prefix.getInt();
+            final long sampleCount = prefix.getLong();
+            if (sampleCount < 0 || sampleCount > Integer.MAX_VALUE / Double.BYTES) {
+                throw new IOException("Unsupported sample count " + sampleCount);
+            }
+
+            final SwingChannel[] channels = SwingChannel.rawValues();
+            if (channelCount < 0 || channelCount > channels.length) {
+                throw new IOException("Unsupported channel count " + channelCount);
+            }
+            final SwingColumn[] columns = new SwingColumn[channels.length];
+            final int[] seenColumns = new int[channelCount];
+
+            final ByteBuffer entries = readFully(fileChannel, HEADER_SIZE, (long) CHANNEL_ENTRY_SIZE * channelCount);
+            for (int i = 0; i < channelCount; i++) {
+
+                final int column = entries.getInt();
+                final int encoding = entries.getInt();
+                final long offset = entries.getLong();
+
+                for (int seen = 0; seen < i; seen++) {
+                    if (seenColumns[seen] == column) {
+                        throw new IOException("Duplicate entry for column " + column);
+                    }
+                }
+                seenColumns[i] = column;
+
+                if (encoding != ENCODING_FLOAT64) {
+                    throw new IOException("Unsupported encoding " + encoding + " for column " + column);
+                }
+                if (offset < 0 || offset > fileChannel.size() - sampleCount * Double.BYTES) {
+                    throw new IOException("Binary swing file is truncated");
+                }
+
+                for (final SwingChannel channel : channels) {
+                    if (channel.getColumn() == column && projection.contains(channel)) {
+                        columns[channel.ordinal()] = new DoubleBufferColumn(
+                                fileChannel
+                                        .map(FileChannel.MapMode.READ_ONLY, offset, sampleCount * Double.BYTES)
+                                        .order(ByteOrder.LITTLE_ENDIAN)
+                                        .asDoubleBuffer()
+                        );
+                    }
+                }
+            }
+
+            for (final SwingChannel channel : channels) {
+                if (columns[channel.ordinal()] == null && projection.contains(channel)) {
+                    throw new IOException(path + " has no data for " + channel);
+                }
+            }
+
+            return columns;
+        }
+    }
+
+    static SwingChannel[] loadedChannels(final SwingColumn[] columns) {
+
+        int count = 0;
+        final SwingChannel[] channels = SwingChannel.rawValues();
+        for (final SwingChannel channel : channels) {
+            if (columns[channel.ordinal()] != null) {
+                channels[count++] = channel;
+            }
+        }
+
+        return Arrays.copyOf(channels, count);
+    }
+
+    private static long align(final long position) {
+        return (position + Double.BYTES - 1) & -Double.BYTES;
+    }
+
+    private static int writeFully(final FileChannel fileChannel, final ByteBuffer buffer, final long position) throws IOException {
+
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += fileChannel.write(buffer, position + written);
+        }
+
+        return written;
+    }
+
+    private static ByteBuffer readFully(final FileChannel fileChannel, final long position, final long length) throws IOException {
+
+        if (position + length > fileChannel.size()) {
+            throw new IOException("Binary swing file is truncated");
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Binary swing file is truncated");
+            }
+        }
+        buffer.flip();
+
+        return buffer;
+    }
+}
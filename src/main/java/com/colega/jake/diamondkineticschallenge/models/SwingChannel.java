@@ -0,0 +1,47 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+public enum SwingChannel {
+
+    TIME(0),
+    ACCELERATOR_X(1),
+    ACCELERATOR_Y(2),
+    ACCELERATOR_Z(3),
+    GYROSCOPE_X(4),
+    GYROSCOPE_Y(5),
+    GYROSCOPE_Z(6),
+
+    // Derived channels, computed by the swing from their source channels on first use
+    ACCELERATION_MAGNITUDE(-1, ACCELERATOR_X, ACCELERATOR_Y, ACCELERATOR_Z),
+    ANGULAR_VELOCITY_MAGNITUDE(-1, GYROSCOPE_X, GYROSCOPE_Y, GYROSCOPE_Z);
+
+    private static final SwingChannel[] RAW_VALUES = {
+            TIME, ACCELERATOR_X, ACCELERATOR_Y, ACCELERATOR_Z, GYROSCOPE_X, GYROSCOPE_Y, GYROSCOPE_Z
+    };
+
+    // Column position of the channel within a swing CSV record, -1 for derived channels
+    private final int column;
+    private final SwingChannel[] sources;
+
+    SwingChannel(final int column, final SwingChannel... sources) {
+        this.column = column;
+        this.sources = sources;
+    }
+
+    // The channels stored in swing files, in ordinal order
+    public static SwingChannel[] rawValues() {
+        return RAW_VALUES.clone();
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    public boolean isDerived() {
+        return this.sources.length > 0;
+    }
+
+    // Channels a derived channel is computed from, empty for raw channels
+    public SwingChannel[] getSources() {
+        return this.sources.clone();
+    }
+}
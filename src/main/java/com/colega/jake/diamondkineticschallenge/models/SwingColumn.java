@@ -0,0 +1,31 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.DoubleBuffer;
+
+// Storage of a single swing channel, searches dispatch on the concrete type to a specialized kernel
+public abstract class SwingColumn {
+
+    public abstract int size();
+
+    public abstract double get(int index);
+
+    public abstract SwingEncoding getEncoding();
+
+    // Read-only view over the column, no copy is made for FLOAT64 columns
+    public abstract DoubleBuffer getView();
+
+    public void copyTo(final int index, final double[] destination, final int offset, final int length) {
+
+        final DoubleBuffer view = this.getView();
+        view.position(index);
+        view.get(destination, offset, length);
+    }
+
+    public double[] toArray() {
+
+        final double[] data = new double[this.size()];
+        this.getView().get(data);
+
+        return data;
+    }
+}
@@ -0,0 +1,272 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.util.Arrays;
+
+/*
+ * Min/max tree over fixed-size blocks of a column. Runs of samples that pass or fail a threshold test are
+ * skipped a subtree at a time, so a search costs O(log n) per run it crosses instead of one step per sample.
+ *
+ * A sample passes when value > thresholdLo && !(value >= thresholdHi). Passing NaN as thresholdHi leaves the
+ * range unbounded above, which is how the "above value" searches are answered.
+ */
+public final class SwingColumnIndex {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int INITIAL_RESULT_CAPACITY = 16;
+
+    private final SwingColumn column;
+    private final int length;
+
+    // Heap-ordered tree, node 1 is the root and the leaves start at leafOffset
+    private final int leafOffset;
+    private final double[] mins;
+    private final double[] maxs;
+
+    public SwingColumnIndex(final SwingColumn column) {
+
+        this.column = column;
+        this.length = column.size();
+
+        final int blockCount = Integer.max(1, (this.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        this.leafOffset = Integer.max(2, Integer.highestOneBit(blockCount - 1) << 1);
+        this.mins = new double[2 * this.leafOffset];
+        this.maxs = new double[2 * this.leafOffset];
+
+        // Padding leaves can never pass or fail
+        Arrays.fill(this.mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.maxs, Double.NEGATIVE_INFINITY);
+
+        for (int i = 0; i < this.length; i++) {
+
+            final int node = this.leafOffset + i / BLOCK_SIZE;
+            final double value = column.get(i);
+
+            // NaN fails every test, so it is kept as a block that may both pass and fail
+            if (Double.isNaN(value)) {
+                this.mins[node] = Double.NEGATIVE_INFINITY;
+                this.maxs[node] = Double.POSITIVE_INFINITY;
+            } else {
+                this.mins[node] = Math.min(this.mins[node], value);
+                this.maxs[node] = Math.max(this.maxs[node], value);
+            }
+        }
+
+        for (int node = this.leafOffset - 1; node > 0; node--) {
+            this.mins[node] = Math.min(this.mins[2 * node], this.mins[2 * node + 1]);
+            this.maxs[node] = Math.max(this.maxs[2 * node], this.maxs[2 * node + 1]);
+        }
+    }
+
+    public SwingColumn getColumn() {
+        return this.column;
+    }
+
+    // First index in [indexBegin, indexEnd) starting winLength passing samples, or -1
+    public int searchForward(
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int start = indexBegin;
+        while (indexEnd - start >= winLength) {
+
+            start = this.nextIndex(start, indexEnd, thresholdLo, thresholdHi, true);
+            if (indexEnd - start < winLength) {
+                return -1;
+            }
+
+            final int failure = this.nextIndex(start, start + winLength, thresholdLo, thresholdHi, false);
+            if (failure == start + winLength) {
+                return start;
+            }
+
+            start = failure + 1;
+        }
+
+        return -1;
+    }
+
+    // Walking down from indexBegin to the exclusive indexEnd, the top index of winLength passing samples, or -1
+    public int searchBackward(
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int start = indexBegin;
+        while (start - indexEnd >= winLength) {
+
+            start = this.previousIndex(start, indexEnd, thresholdLo, thresholdHi, true);
+            if (start - indexEnd < winLength) {
+                return -1;
+            }
+
+            final int failure = this.previousIndex(start, start - winLength, thresholdLo, thresholdHi, false);
+            if (failure == start - winLength) {
+                return start;
+            }
+
+            start = failure - 1;
+        }
+
+        return -1;
+    }
+
+    // Starts of every window of winLength passing samples in [indexBegin, indexEnd), in order
+    public int[] searchMulti(
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        int start = indexBegin;
+        while (indexEnd - start >= winLength) {
+
+            start = this.nextIndex(start, indexEnd, thresholdLo, thresholdHi, true);
+            if (indexEnd - start < winLength) {
+                break;
+            }
+
+            final int runEnd = this.nextIndex(start, indexEnd, thresholdLo, thresholdHi, false);
+            for (int windowStart = start; runEnd - windowStart >= winLength; windowStart++) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = windowStart;
+            }
+
+            start = runEnd + 1;
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    // First index in [from, to) whose sample passes (or fails), to if there is none
+    private int nextIndex(final int from, final int to, final double thresholdLo, final double thresholdHi, final boolean pass) {
+
+        int block = from / BLOCK_SIZE;
+        int index = from;
+        while (index < to) {
+
+            final int blockEnd = Integer.min(to, (block + 1) * BLOCK_SIZE);
+            for (; index < blockEnd; index++) {
+                if (passes(this.column.get(index), thresholdLo, thresholdHi) == pass) {
+                    return index;
+                }
+            }
+
+            block = this.nextBlock(block + 1, thresholdLo, thresholdHi, pass);
+            if (block < 0) {
+                return to;
+            }
+            index = Integer.max(index, block * BLOCK_SIZE);
+        }
+
+        return to;
+    }
+
+    // Last index in (to, from] whose sample passes (or fails), to if there is none
+    private int previousIndex(final int from, final int to, final double thresholdLo, final double thresholdHi, final boolean pass) {
+
+        int block = from / BLOCK_SIZE;
+        int index = from;
+        while (index > to) {
+
+            final int blockBegin = Integer.max(to, block * BLOCK_SIZE - 1);
+            for (; index > blockBegin; index--) {
+                if (passes(this.column.get(index), thresholdLo, thresholdHi) == pass) {
+                    return index;
+                }
+            }
+
+            block = this.previousBlock(block - 1, thresholdLo, thresholdHi, pass);
+            if (block < 0) {
+                return to;
+            }
+            index = Integer.min(index, (block + 1) * BLOCK_SIZE - 1);
+        }
+
+        return to;
+    }
+
+    // First block at or after fromBlock that may hold a passing (or failing) sample, -1 if there is none
+    private int nextBlock(final int fromBlock, final double thresholdLo, final double thresholdHi, final boolean pass) {
+
+        if (fromBlock >= this.leafOffset) {
+            return -1;
+        }
+
+        int node = this.leafOffset + fromBlock;
+        while (true) {
+
+            if (this.mayMatch(node, thresholdLo, thresholdHi, pass)) {
+                if (node >= this.leafOffset) {
+                    return node - this.leafOffset;
+                }
+                node = 2 * node;
+                continue;
+            }
+
+            // Climb while on a right edge, then step to the next subtree on the right
+            while ((node & 1) == 1) {
+                node >>= 1;
+            }
+            if (node == 0) {
+                return -1;
+            }
+            node++;
+        }
+    }
+
+    // Last block at or before fromBlock that may hold a passing (or failing) sample, -1 if there is none
+    private int previousBlock(final int fromBlock, final double thresholdLo, final double thresholdHi, final boolean pass) {
+
+        if (fromBlock < 0) {
+            return -1;
+        }
+
+        int node = this.leafOffset + fromBlock;
+        while (true) {
+
+            if (this.mayMatch(node, thresholdLo, thresholdHi, pass)) {
+                if (node >= this.leafOffset) {
+                    return node - this.leafOffset;
+                }
+                node = 2 * node + 1;
+                continue;
+            }
+
+            // Climb while on a left edge, then step to the next subtree on the left
+            while ((node & 1) == 0) {
+                node >>= 1;
+            }
+            if (node == 1) {
+                return -1;
+            }
+            node--;
+        }
+    }
+
+    private boolean mayMatch(final int node, final double thresholdLo, final double thresholdHi, final boolean pass) {
+
+        if (pass) {
+            return this.maxs[node] > thresholdLo && !(this.mins[node] >= thresholdHi);
+        }
+
+        return !(this.mins[node] > thresholdLo) || this.maxs[node] >= thresholdHi;
+    }
+
+    private static boolean passes(final double value, final double thresholdLo, final double thresholdHi) {
+        return value > thresholdLo && !(value >= thresholdHi);
+    }
+}
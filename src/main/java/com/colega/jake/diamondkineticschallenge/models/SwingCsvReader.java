@@ -0,0 +1,305 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Streams swing CSV records straight into primitive columns, no record or field objects are created
+final class SwingCsvReader {
+
+    // Rough length in characters of one swing record, only used to presize the columns
+    static final int ESTIMATED_RECORD_LENGTH = 56;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MIN_CAPACITY = 16;
+    private static final int EOF = -1;
+
+    // Mantissas up to 2^53 and powers of ten up to 10^22 are exact doubles, so one multiply or divide rounds correctly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_SIGNIFICANT_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private char[] field = new char[64];
+    private int fieldLength;
+
+    SwingCsvReader(final Reader reader) {
+        this.reader = reader;
+    }
+
+    double[][] read(final long sizeHint) throws IOException {
+        return this.read(sizeHint, EnumSet.allOf(SwingChannel.class));
+    }
+
+    // Columns by channel ordinal, null for raw channels outside the projection whose fields are skipped unparsed
+    double[][] read(final long sizeHint, final Set<SwingChannel> projection) throws IOException {
+
+        final SwingChannel[] channels = SwingChannel.rawValues();
+        final int[] channelByColumn = new int[channels.length];
+        for (final SwingChannel channel : channels) {
+            channelByColumn[channel.getColumn()] = projection.contains(channel) ? channel.ordinal() : -1;
+        }
+
+        int capacity = (int) Long.min(
+                Integer.MAX_VALUE - 8,
+                Long.max(MIN_CAPACITY, sizeHint / ESTIMATED_RECORD_LENGTH + 1)
+        );
+        final double[][] columns = new double[channels.length][];
+        for (final SwingChannel channel : channels) {
+            if (projection.contains(channel)) {
+                columns[channel.ordinal()] = new double[capacity];
+            }
+        }
+        int size = 0;
+
+        int c = this.nextChar();
+        while (c != EOF) {
+
+            // Empty lines are skipped, as CSVFormat.DEFAULT does
+            if (c == '\n' || c == '\r') {
+                c = this.nextChar();
+                continue;
+            }
+
+            if (size == capacity) {
+                capacity = grow(columns, capacity);
+            }
+
+            int column = 0;
+            while (true) {
+                if (column < channels.length && channelByColumn[column] >= 0) {
+                    c = this.readField(c);
+                    columns[channelByColumn[column]][size] = this.parseField();
+                } else {
+                    c = this.skipField(c);
+                }
+                column++;
+
+                if (c != ',') {
+                    break;
+                }
+                c = this.nextChar();
+            }
+
+            if (column < channels.length) {
+                throw new IOException("Record " + (size + 1) + " has " + column + " fields, expected " + channels.length);
+            }
+
+            size++;
+        }
+
+        if (size != capacity) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null) {
+                    columns[i] = Arrays.copyOf(columns[i], size);
+                }
+            }
+        }
+
+        return columns;
+    }
+
+    // Grows the loaded columns in place, returns the new capacity
+    private static int grow(final double[][] columns, final int capacity) {
+
+        final int newCapacity = (int) Long.min(Integer.MAX_VALUE - 8, capacity + (capacity >> 1) + 1L);
+        if (newCapacity == capacity) {
+            throw new OutOfMemoryError("Swing has too many records");
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null) {
+                columns[i] = Arrays.copyOf(columns[i], newCapacity);
+            }
+        }
+
+        return newCapacity;
+    }
+
+    private int nextChar() throws IOException {
+
+        if (this.position == this.limit) {
+            final int read = this.reader.read(this.buffer, 0, this.buffer.length);
+            if (read <= 0) {
+                return EOF;
+            }
+            this.position = 0;
+            this.limit = read;
+        }
+
+        return this.buffer[this.position++];
+    }
+
+    // Copies the field starting with c into the scratch buffer, returns the character that ended it
+    private int readField(int c) throws IOException {
+
+        this.fieldLength = 0;
+
+        if (c == '"') {
+            c = this.nextChar();
+            while (true) {
+                if (c == EOF) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = this.nextChar();
+                    if (c != '"') {
+                        break;
+                    }
+                }
+                this.append((char) c);
+                c = this.nextChar();
+            }
+        }
+
+        while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+            this.append((char) c);
+            c = this.nextChar();
+        }
+
+        return c;
+    }
+
+    // Moves past the field starting with c without copying it, returns the character that ended it
+    private int skipField(int c) throws IOException {
+
+        if (c == '"') {
+            c = this.nextChar();
+            while (true) {
+                if (c == EOF) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = this.nextChar();
+                    if (c != '"') {
+                        break;
+                    }
+                }
+                c = this.nextChar();
+            }
+        }
+
+        while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+            c = this.nextChar();
+        }
+
+        return c;
+    }
+
+    private void append(final char c) {
+
+        if (this.fieldLength == this.field.length) {
+            this.field = Arrays.copyOf(this.field, this.field.length * 2);
+        }
+
+        this.field[this.fieldLength++] = c;
+    }
+
+    // Plain decimals are converted in place, anything unusual falls back to Double.parseDouble
+    private double parseField() {
+
+        final char[] chars = this.field;
+        int i = 0;
+        int end = this.fieldLength;
+
+        // Double.parseDouble ignores surrounding whitespace, so do the same
+        while (i < end && chars[i] <= ' ') {
+            i++;
+        }
+        while (end > i && chars[end - 1] <= ' ') {
+            end--;
+        }
+
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        boolean fraction = false;
+
+        for (; i < end; i++) {
+            final char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                anyDigits = true;
+                if (mantissa != 0 || c != '0') {
+                    if (significantDigits == MAX_SIGNIFICANT_DIGITS) {
+                        return this.parseFieldSlow();
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                    significantDigits++;
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (!anyDigits) {
+            return this.parseFieldSlow();
+        }
+
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+
+            int explicitExponent = 0;
+            final int exponentStart = i;
+            for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                if (explicitExponent > 9999) {
+                    return this.parseFieldSlow();
+                }
+                explicitExponent = explicitExponent * 10 + (chars[i] - '0');
+            }
+
+            if (i == exponentStart) {
+                return this.parseFieldSlow();
+            }
+
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (i != end) {
+            return this.parseFieldSlow();
+        }
+
+        final double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return this.parseFieldSlow();
+        }
+
+        return negative ? -value : value;
+    }
+
+    private double parseFieldSlow() {
+        return Double.parseDouble(new String(this.field, 0, this.fieldLength));
+    }
+}
@@ -0,0 +1,17 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+// How the samples of a channel are stored in memory
+public enum SwingEncoding {
+
+    // 8 bytes per sample, exact
+    FLOAT64,
+
+    // 4 bytes per sample, each value rounded to the nearest float
+    FLOAT32,
+
+    // 2 bytes per sample, each value rounded to a multiple of a per-channel scale
+    INT16,
+
+    // Lossless blocks of a mapped swing archive, decoded a block at a time as searches reach them
+    COMPRESSED
+}
@@ -0,0 +1,207 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.lang.ref.WeakReference;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Append-only store packing the raw channels of many swings into large direct buffers, so a big resident corpus is a
+ * handful of off-heap slabs instead of millions of heap arrays. Each channel is stored contiguously as little-endian
+ * doubles, and the only heap kept per swing is its row of the offset index.
+ *
+ * get returns a Swing whose channels are read-only views over the slabs, searches run on them without copying.
+ * Views are held weakly, so a view still in use is returned again and identity-keyed result caches keep working, while
+ * views nobody holds are collected. Their derived channels go to direct buffers and they build no zone maps.
+ *
+ * add takes the lock, get does not: add fills in the index and publishes the id by the volatile write of size last.
+ */
+public final class SwingStore {
+
+    public static final int DEFAULT_SLAB_BYTES = 1 << 26;
+
+    private static final int RAW_CHANNEL_COUNT = SwingChannel.rawValues().length;
+    private static final long NOT_LOADED = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int COPY_CHUNK_VALUES = 1 << 13;
+    private static final int VIEW_PAGE_SHIFT = 10;
+    private static final int VIEW_PAGE_SIZE = 1 << VIEW_PAGE_SHIFT;
+
+    private final int slabBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private ByteBuffer currentSlab;
+
+    // Duplicates of the slabs whose position nobody moves, readers slice their own duplicates of them
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+    // Per swing and raw channel, the slab index in the high and the byte offset in the low 32 bits
+    private volatile long[] locations = new long[INITIAL_CAPACITY * RAW_CHANNEL_COUNT];
+    private volatile int[] lengths = new int[INITIAL_CAPACITY];
+
+    // Weakly held views in fixed pages, so growing the store never moves a published view
+    private volatile AtomicReferenceArray<WeakReference<Swing>>[] viewPages = newViewPages(0);
+
+    private volatile int size;
+    private long usedBytes;
+    private long allocatedBytes;
+
+    public SwingStore() {
+        this(DEFAULT_SLAB_BYTES);
+    }
+
+    public SwingStore(final int slabBytes) {
+
+        if (slabBytes < Double.BYTES) {
+            throw new IllegalArgumentException("slabBytes (" + slabBytes + ") is smaller than one sample");
+        }
+
+        this.slabBytes = slabBytes & -Double.BYTES;
+    }
+
+    // Copies the loaded raw channels of the swing into the store, returns the id to get it back with
+    public int add(final Swing swing) {
+
+        this.lock.lock();
+        try {
+
+            final int id = this.size;
+            if (id == this.lengths.length) {
+                this.lengths = Arrays.copyOf(this.lengths, id * 2);
+                this.locations = Arrays.copyOf(this.locations, id * 2 * RAW_CHANNEL_COUNT);
+            }
+            if (id >>> VIEW_PAGE_SHIFT == this.viewPages.length) {
+                final AtomicReferenceArray<WeakReference<Swing>>[] pages = newViewPages(this.viewPages.length + 1);
+                System.arraycopy(this.viewPages, 0, pages, 0, this.viewPages.length);
+                pages[this.viewPages.length] = new AtomicReferenceArray<>(VIEW_PAGE_SIZE);
+                this.viewPages = pages;
+            }
+
+            final long[] locations = this.locations;
+            final int length = swing.getLength();
+            for (final SwingChannel channel : SwingChannel.rawValues()) {
+                locations[id * RAW_CHANNEL_COUNT + channel.ordinal()] = swing.isLoaded(channel)
+                        ? this.append(swing.getColumn(channel), length)
+                        : NOT_LOADED;
+            }
+            this.lengths[id] = length;
+            this.size = id + 1;
+
+            return id;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Read-only view of the swing with the given id, channels not loaded when it was added stay unloaded
+    public Swing get(final int id) {
+
+        final int size = this.size;
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id (" + id + ") out of bounds for " + size + " swings");
+        }
+
+        final AtomicReferenceArray<WeakReference<Swing>> page = this.viewPages[id >>> VIEW_PAGE_SHIFT];
+        final int slot = id & (VIEW_PAGE_SIZE - 1);
+        while (true) {
+
+            final WeakReference<Swing> held = page.get(slot);
+            final Swing cached = held == null ? null : held.get();
+            if (cached != null) {
+                return cached;
+            }
+
+            final Swing view = this.view(id);
+            if (page.compareAndSet(slot, held, new WeakReference<>(view))) {
+                return view;
+            }
+        }
+    }
+
+    // Swing over the slab regions holding the channels of id, which size has already published
+    private Swing view(final int id) {
+
+        final ByteBuffer[] slabs = this.slabs;
+        final long[] locations = this.locations;
+        final SwingColumn[] columns = new SwingColumn[SwingChannel.values().length];
+        final int length = this.lengths[id];
+        for (final SwingChannel channel : SwingChannel.rawValues()) {
+
+            final long location = locations[id * RAW_CHANNEL_COUNT + channel.ordinal()];
+            if (location == NOT_LOADED) {
+                continue;
+            }
+
+            final ByteBuffer slab = slabs[(int) (location >>> 32)].duplicate();
+            final int offset = (int) location;
+            slab.position(offset).limit(offset + length * Double.BYTES);
+            columns[channel.ordinal()] = new DoubleBufferColumn(slab.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer());
+        }
+
+        return new Swing(columns, true);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    // Bytes of sample data stored
+    public long getUsedBytes() {
+        this.lock.lock();
+        try {
+            return this.usedBytes;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Bytes of direct memory held by the slabs
+    public long getAllocatedBytes() {
+        this.lock.lock();
+        try {
+            return this.allocatedBytes;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Copies the column to the current slab, or a new one when it does not fit, and returns its location
+    private long append(final SwingColumn column, final int length) {
+
+        final int bytes = Math.multiplyExact(length, Double.BYTES);
+        if (this.currentSlab == null || this.currentSlab.remaining() < bytes) {
+            this.currentSlab = ByteBuffer.allocateDirect(Integer.max(this.slabBytes, bytes)).order(ByteOrder.LITTLE_ENDIAN);
+            final ByteBuffer[] slabs = Arrays.copyOf(this.slabs, this.slabs.length + 1);
+            slabs[slabs.length - 1] = this.currentSlab.duplicate();
+            this.slabs = slabs;
+            this.allocatedBytes += this.currentSlab.capacity();
+        }
+
+        final int offset = this.currentSlab.position();
+        final DoubleBuffer target = this.currentSlab.asDoubleBuffer();
+
+        if (column instanceof DoubleArrayColumn) {
+            target.put(((DoubleArrayColumn) column).getSharedData(), 0, length);
+        } else {
+            final double[] chunk = new double[Integer.min(length, COPY_CHUNK_VALUES)];
+            for (int begin = 0; begin < length; begin += chunk.length) {
+                final int count = Integer.min(chunk.length, length - begin);
+                column.copyTo(begin, chunk, 0, count);
+                target.put(chunk, 0, count);
+            }
+        }
+
+        this.currentSlab.position(offset + bytes);
+        this.usedBytes += bytes;
+
+        return ((long) (this.slabs.length - 1) << 32) | offset;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<WeakReference<Swing>>[] newViewPages(final int count) {
+        return (AtomicReferenceArray<WeakReference<Swing>>[]) new AtomicReferenceArray<?>[count];
+    }
+}
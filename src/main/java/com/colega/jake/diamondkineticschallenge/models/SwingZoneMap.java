@@ -0,0 +1,136 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Min and max of the non-NaN samples of each fixed-size block of a column, plus whether the block holds NaN. A
+ * search tests a block against its thresholds before reading it: blocks where no sample can pass end the current
+ * run and blocks where every sample passes extend it, neither needs its samples read.
+ *
+ * Maps built over a column summarize a block the first time a search asks about it, so a search reads only the
+ * blocks it touches and later searches skip them. Maps read from an archive come with every block summarized.
+ *
+ * A sample passes when value > thresholdLo && !(value >= thresholdHi), NaN leaves the range unbounded above.
+ */
+public final class SwingZoneMap {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 8;
+
+    private final SwingColumn column;
+    private final int size;
+    private final int blockSize;
+    private final double[] mins;
+    private final double[] maxs;
+    private final boolean[] nans;
+
+    // Bit per block, set after the block's summary is written so readers of the bit see it. Null when every block is
+    // summarized up front
+    private final AtomicLongArray summarized;
+
+    SwingZoneMap(final int size, final int blockSize, final double[] mins, final double[] maxs, final boolean[] nans) {
+        this.column = null;
+        this.size = size;
+        this.blockSize = blockSize;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.nans = nans;
+        this.summarized = null;
+    }
+
+    public SwingZoneMap(final SwingColumn column) {
+        this(column, DEFAULT_BLOCK_SIZE);
+    }
+
+    // Nothing is read here, each block is summarized on first use
+    public SwingZoneMap(final SwingColumn column, final int blockSize) {
+
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize (" + blockSize + ") is not positive");
+        }
+
+        this.column = column;
+        this.size = column.size();
+        this.blockSize = blockSize;
+
+        final int blockCount = (int) (((long) this.size + blockSize - 1) / blockSize);
+        this.mins = new double[blockCount];
+        this.maxs = new double[blockCount];
+        this.nans = new boolean[blockCount];
+        this.summarized = new AtomicLongArray((blockCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    public int getBlockCount() {
+        return this.mins.length;
+    }
+
+    // Number of samples in the block, only the last block can be short
+    public int getBlockLength(final int block) {
+        return Integer.min(this.blockSize, this.size - block * this.blockSize);
+    }
+
+    // Smallest non-NaN sample of the block, positive infinity when every sample is NaN
+    public double getBlockMin(final int block) {
+        return this.mins[this.summarize(block)];
+    }
+
+    // Largest non-NaN sample of the block, negative infinity when every sample is NaN
+    public double getBlockMax(final int block) {
+        return this.maxs[this.summarize(block)];
+    }
+
+    public boolean hasNaN(final int block) {
+        return this.nans[this.summarize(block)];
+    }
+
+    public boolean nonePass(final int block, final double thresholdLo, final double thresholdHi) {
+        this.summarize(block);
+        return !(this.maxs[block] > thresholdLo) || this.mins[block] >= thresholdHi;
+    }
+
+    public boolean allPass(final int block, final double thresholdLo, final double thresholdHi) {
+        this.summarize(block);
+        return !this.nans[block] && this.mins[block] > thresholdLo && !(this.maxs[block] >= thresholdHi);
+    }
+
+    // Summarizes the block unless that was done already, racing threads write the same values
+    private int summarize(final int block) {
+
+        if (this.summarized == null || (this.summarized.get(block / Long.SIZE) & 1L << block) != 0) {
+            return block;
+        }
+
+        final int blockBegin = block * this.blockSize;
+        final int blockEnd = blockBegin + this.getBlockLength(block);
+        final double[] shared = this.column instanceof DoubleArrayColumn
+                ? ((DoubleArrayColumn) this.column).getSharedData()
+                : null;
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        boolean nan = false;
+        for (int i = blockBegin; i < blockEnd; i++) {
+            final double value = shared != null ? shared[i] : this.column.get(i);
+            if (Double.isNaN(value)) {
+                nan = true;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+
+        this.mins[block] = min;
+        this.maxs[block] = max;
+        this.nans[block] = nan;
+
+        long bits;
+        do {
+            bits = this.summarized.get(block / Long.SIZE);
+        } while (!this.summarized.compareAndSet(block / Long.SIZE, bits, bits | 1L << block));
+
+        return block;
+    }
+}
@@ -0,0 +1,301 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/*
+ * Runs the Swing searches of a SwingSearchService on an executor, so callers get a CompletableFuture back at once.
+ * A search walks its range in chunks of chunkSize window starts, and between chunks it stops if the future was
+ * cancelled or the deadline has passed. The deadline counts from the call, so time spent queued counts too.
+ *
+ * When time runs out a single window search completes with a TimeoutException, a multi window search completes with
+ * the windows starting before the chunk it stopped at and isComplete false. Invalid queries complete with the
+ * InvalidInputException the synchronous search would throw.
+ */
+public class AsyncSwingSearchService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final SwingSearchService swingSearchService;
+    private final Executor executor;
+    private final int chunkSize;
+
+    public AsyncSwingSearchService(final SwingSearchService swingSearchService, final Executor executor) {
+        this(swingSearchService, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    public AsyncSwingSearchService(
+            final SwingSearchService swingSearchService,
+            final Executor executor,
+            final int chunkSize
+    ) {
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize (" + chunkSize + ") is not positive");
+        }
+        this.swingSearchService = swingSearchService;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    public CompletableFuture<Integer> searchContinuityAboveValue(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength,
+            final Duration timeout
+    ) {
+        return this.submit(
+                swing,
+                SwingQuery.continuityAboveValue(channel, indexBegin, indexEnd, threshold, winLength),
+                timeout,
+                SwingQueryResult::getIndex
+        );
+    }
+
+    public CompletableFuture<Integer> backSearchContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final Duration timeout
+    ) {
+        return this.submit(
+                swing,
+                SwingQuery.backContinuityWithinRange(channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength),
+                timeout,
+                SwingQueryResult::getIndex
+        );
+    }
+
+    public CompletableFuture<Integer> searchContinuityAboveValueTwoSignals(
+            final Swing swing,
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength,
+            final Duration timeout
+    ) {
+        return this.submit(
+                swing,
+                SwingQuery.continuityAboveValueTwoSignals(
+                        channel1, channel2, indexBegin, indexEnd, threshold1, threshold2, winLength
+                ),
+                timeout,
+                SwingQueryResult::getIndex
+        );
+    }
+
+    // Completes with a partial result rather than a TimeoutException when the deadline passes
+    public CompletableFuture<SwingQueryResult> searchMultiContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final Duration timeout
+    ) {
+        return this.search(
+                swing,
+                SwingQuery.multiContinuityWithinRange(channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength),
+                timeout
+        );
+    }
+
+    // A null timeout lets the search run until it is done or cancelled
+    public CompletableFuture<SwingQueryResult> search(final Swing swing, final SwingQuery query, final Duration timeout) {
+        return this.submit(swing, query, timeout, Function.identity());
+    }
+
+    // The future handed back is the one the search polls, so cancelling it stops the search at the next chunk
+    private <T> CompletableFuture<T> submit(
+            final Swing swing,
+            final SwingQuery query,
+            final Duration timeout,
+            final Function<SwingQueryResult, T> answer
+    ) {
+
+        final long deadline = timeout == null ? NO_DEADLINE : deadlineOf(timeout);
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            this.executor.execute(() -> {
+                try {
+                    final SwingQueryResult result = this.run(swing, query, deadline, future);
+                    if (result != null) {
+                        future.complete(answer.apply(result));
+                    }
+                } catch (final Throwable e) {
+                    // Errors too, or callers waiting without a deadline would never be released
+                    future.completeExceptionally(e);
+                    if (e instanceof Error) {
+                        throw (Error) e;
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    // Null when the future was completed elsewhere, by a cancel
+    private SwingQueryResult run(
+            final Swing swing,
+            final SwingQuery query,
+            final long deadline,
+            final CompletableFuture<?> future
+    ) throws TimeoutException {
+
+        if (future.isDone()) {
+            return null;
+        }
+
+        this.swingSearchService.prepare(swing, query);
+
+        final int winLength = query.getWinLength();
+        final int chunk = Integer.max(this.chunkSize, winLength);
+        final int indexBegin = query.getIndexBegin();
+        final int indexEnd = query.getIndexEnd();
+
+        switch (query.getType()) {
+
+            case CONTINUITY_ABOVE_VALUE:
+            case CONTINUITY_ABOVE_VALUE_TWO_SIGNALS:
+                // Each chunk searches the windows starting in it, reading up to winLength - 1 samples past its end
+                for (long begin = indexBegin; begin < indexEnd; begin += chunk) {
+                    if (future.isDone()) {
+                        return null;
+                    }
+                    checkDeadline(deadline, begin - indexBegin);
+                    final int end = (int) Long.min(indexEnd, begin + chunk + winLength - 1);
+                    final SwingQueryResult result = this.swingSearchService.execute(
+                            swing, withRange(query, (int) begin, end)
+                    );
+                    if (result.getIndex() != -1) {
+                        return result;
+                    }
+                }
+                return new SwingQueryResult(-1, null);
+
+            case BACK_CONTINUITY_WITHIN_RANGE:
+                // Each chunk searches the windows whose top is in it, walking down (indexEnd, indexBegin]
+                for (long top = indexBegin; top > indexEnd; top -= chunk) {
+                    if (future.isDone()) {
+                        return null;
+                    }
+                    checkDeadline(deadline, indexBegin - top);
+                    final int bottom = (int) Long.max(indexEnd, top - chunk - winLength + 1);
+                    final SwingQueryResult result = this.swingSearchService.execute(
+                            swing, withRange(query, (int) top, bottom)
+                    );
+                    if (result.getIndex() != -1) {
+                        return result;
+                    }
+                }
+                return new SwingQueryResult(-1, null);
+
+            case MULTI_CONTINUITY_WITHIN_RANGE: {
+                final List<int[]> windows = new ArrayList<>();
+                boolean complete = true;
+                for (long begin = indexBegin; begin < indexEnd; begin += chunk) {
+                    if (future.isDone()) {
+                        return null;
+                    }
+                    if (expired(deadline)) {
+                        complete = false;
+                        break;
+                    }
+                    final int end = (int) Long.min(indexEnd, begin + chunk + winLength - 1);
+                    final SwingQueryResult result = this.swingSearchService.execute(
+                            swing, withRange(query, (int) begin, end)
+                    );
+                    windows.addAll(Arrays.asList(result.getWindows()));
+                }
+                return new SwingQueryResult(
+                        windows.isEmpty() ? -1 : windows.get(0)[0], windows.toArray(new int[0][]), complete
+                );
+            }
+
+            default:
+                throw new IllegalStateException("Unknown query type " + query.getType());
+        }
+    }
+
+    private static SwingQuery withRange(final SwingQuery query, final int indexBegin, final int indexEnd) {
+
+        switch (query.getType()) {
+
+            case CONTINUITY_ABOVE_VALUE:
+                return SwingQuery.continuityAboveValue(
+                        query.getChannel1(), indexBegin, indexEnd, query.getThresholdLo(), query.getWinLength()
+                );
+
+            case BACK_CONTINUITY_WITHIN_RANGE:
+                return SwingQuery.backContinuityWithinRange(
+                        query.getChannel1(), indexBegin, indexEnd, query.getThresholdLo(), query.getThresholdHi(), query.getWinLength()
+                );
+
+            case CONTINUITY_ABOVE_VALUE_TWO_SIGNALS:
+                return SwingQuery.continuityAboveValueTwoSignals(
+                        query.getChannel1(),
+                        query.getChannel2(),
+                        indexBegin,
+                        indexEnd,
+                        query.getThresholdLo(),
+                        query.getThreshold2(),
+                        query.getWinLength()
+                );
+
+            case MULTI_CONTINUITY_WITHIN_RANGE:
+                return SwingQuery.multiContinuityWithinRange(
+                        query.getChannel1(), indexBegin, indexEnd, query.getThresholdLo(), query.getThresholdHi(), query.getWinLength()
+                );
+
+            default:
+                throw new IllegalStateException("Unknown query type " + query.getType());
+        }
+    }
+
+    private static boolean expired(final long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline > 0;
+    }
+
+    private static void checkDeadline(final long deadline, final long searched) throws TimeoutException {
+        if (expired(deadline)) {
+            throw new TimeoutException("Search passed its deadline after " + searched + " samples");
+        }
+    }
+
+    // Timeouts too long to count in nanoseconds never expire
+    private static long deadlineOf(final Duration timeout) {
+        try {
+            return Math.addExact(System.nanoTime(), timeout.toNanos());
+        } catch (final ArithmeticException e) {
+            return NO_DEADLINE;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.DoubleArrayColumn;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import com.colega.jake.diamondkineticschallenge.models.SwingColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Answers many queries with one forward and one backward sweep. The sweeps walk the swing a block at a time and
+ * hand every block to each query still running, so a block is read from memory once and then served from cache.
+ */
+final class BatchSearch {
+
+    private static final int BLOCK_SIZE = 1 << 11;
+    private static final int INITIAL_RESULT_CAPACITY = 16;
+
+    private final Swing swing;
+
+    // Per channel block data, sample i of the current block is at data[i - offset]
+    private final double[][] blockData = new double[SwingChannel.values().length][];
+    private final int[] blockOffset = new int[SwingChannel.values().length];
+    private final double[][] scratch = new double[SwingChannel.values().length][];
+
+    BatchSearch(final Swing swing) {
+        this.swing = swing;
+    }
+
+    SwingQueryResult[] run(final List<SwingQuery> queries) {
+
+        final List<QueryState> forward = new ArrayList<>();
+        final List<QueryState> backward = new ArrayList<>();
+        final QueryState[] states = new QueryState[queries.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new QueryState(queries.get(i));
+            (states[i].query.isForward() ? forward : backward).add(states[i]);
+        }
+
+        this.sweepForward(forward);
+        this.sweepBackward(backward);
+
+        final SwingQueryResult[] results = new SwingQueryResult[states.length];
+        for (int i = 0; i < states.length; i++) {
+            results[i] = states[i].toResult();
+        }
+
+        return results;
+    }
+
+    private void sweepForward(final List<QueryState> states) {
+
+        int begin = Integer.MAX_VALUE;
+        int end = Integer.MIN_VALUE;
+        for (final QueryState state : states) {
+            begin = Integer.min(begin, state.query.getIndexBegin());
+            end = Integer.max(end, state.query.getIndexEnd());
+        }
+
+        final List<QueryState> active = new ArrayList<>(states);
+        for (int blockBegin = begin; blockBegin < end && !active.isEmpty(); blockBegin += BLOCK_SIZE) {
+
+            final int blockEnd = Integer.min(end, blockBegin + BLOCK_SIZE);
+            this.loadBlock(active, blockBegin, blockEnd);
+
+            for (int i = active.size() - 1; i >= 0; i--) {
+
+                final QueryState state = active.get(i);
+                final int from = Integer.max(blockBegin, state.query.getIndexBegin());
+                final int to = Integer.min(blockEnd, state.query.getIndexEnd());
+                if (from < to) {
+                    this.scanForward(state, from, to);
+                }
+
+                if (state.done || blockEnd >= state.query.getIndexEnd()) {
+                    active.remove(i);
+                }
+            }
+        }
+    }
+
+    private void sweepBackward(final List<QueryState> states) {
+
+        int begin = Integer.MIN_VALUE;
+        int end = Integer.MAX_VALUE;
+        for (final QueryState state : states) {
+            begin = Integer.max(begin, state.query.getIndexBegin());
+            end = Integer.min(end, state.query.getIndexEnd());
+        }
+
+        // Blocks cover (blockEnd, blockBegin], walking down
+        final List<QueryState> active = new ArrayList<>(states);
+        for (int blockBegin = begin; blockBegin > end && !active.isEmpty(); blockBegin -= BLOCK_SIZE) {
+
+            final int blockEnd = Integer.max(end, blockBegin - BLOCK_SIZE);
+            this.loadBlock(active, blockEnd + 1, blockBegin + 1);
+
+            for (int i = active.size() - 1; i >= 0; i--) {
+
+                final QueryState state = active.get(i);
+                final int from = Integer.min(blockBegin, state.query.getIndexBegin());
+                final int to = Integer.max(blockEnd, state.query.getIndexEnd());
+                if (from > to) {
+                    this.scanBackward(state, from, to);
+                }
+
+                if (state.done || blockEnd <= state.query.getIndexEnd()) {
+                    active.remove(i);
+                }
+            }
+        }
+    }
+
+    // Heap columns are read in place, any other storage is copied block by block into scratch arrays
+    private void loadBlock(final List<QueryState> active, final int blockBegin, final int blockEnd) {
+
+        Arrays.fill(this.blockData, null);
+
+        for (final QueryState state : active) {
+            if (state.overlaps(blockBegin, blockEnd)) {
+                this.loadChannel(state.query.getChannel1(), blockBegin, blockEnd);
+                if (state.query.getChannel2() != null) {
+                    this.loadChannel(state.query.getChannel2(), blockBegin, blockEnd);
+                }
+            }
+        }
+    }
+
+    private void loadChannel(final SwingChannel channel, final int blockBegin, final int blockEnd) {
+
+        final int ordinal = channel.ordinal();
+        if (this.blockData[ordinal] != null) {
+            return;
+        }
+
+        final SwingColumn column = this.swing.getColumn(channel);
+        if (blockEnd > column.size()) {
+            throw new ArrayIndexOutOfBoundsException(blockEnd - 1);
+        }
+
+        if (column instanceof DoubleArrayColumn) {
+            this.blockData[ordinal] = ((DoubleArrayColumn) column).getSharedData();
+            this.blockOffset[ordinal] = 0;
+            return;
+        }
+
+        if (this.scratch[ordinal] == null) {
+            this.scratch[ordinal] = new double[BLOCK_SIZE];
+        }
+
+        // Backward blocks may start below zero when indexEnd is -1
+        final int from = Integer.max(0, blockBegin);
+        column.copyTo(from, this.scratch[ordinal], 0, blockEnd - from);
+        this.blockData[ordinal] = this.scratch[ordinal];
+        this.blockOffset[ordinal] = from;
+    }
+
+    private void scanForward(final QueryState state, final int from, final int to) {
+
+        final SwingQuery query = state.query;
+        final double[] data1 = this.blockData[query.getChannel1().ordinal()];
+        final int offset1 = this.blockOffset[query.getChannel1().ordinal()];
+        final int winLength = query.getWinLength();
+        int currentLength = state.currentLength;
+
+        switch (query.getType()) {
+
+            case CONTINUITY_ABOVE_VALUE: {
+                final double threshold = query.getThresholdLo();
+                for (int i = from; i < to; i++) {
+                    if (data1[i - offset1] > threshold) {
+                        if (++currentLength == winLength) {
+                            state.finish(i - winLength + 1);
+                            return;
+                        }
+                    } else {
+                        currentLength = 0;
+                    }
+                }
+                break;
+            }
+
+            case CONTINUITY_ABOVE_VALUE_TWO_SIGNALS: {
+                final double[] data2 = this.blockData[query.getChannel2().ordinal()];
+                final int offset2 = this.blockOffset[query.getChannel2().ordinal()];
+                final double threshold1 = query.getThresholdLo();
+                final double threshold2 = query.getThreshold2();
+                for (int i = from; i < to; i++) {
+                    if (data1[i - offset1] > threshold1 && data2[i - offset2] > threshold2) {
+                        if (++currentLength == winLength) {
+                            state.finish(i - winLength + 1);
+                            return;
+                        }
+                    } else {
+                        currentLength = 0;
+                    }
+                }
+                break;
+            }
+
+            case MULTI_CONTINUITY_WITHIN_RANGE: {
+                final double thresholdLo = query.getThresholdLo();
+                final double thresholdHi = SearchKernels.rangeHi(query.getThresholdHi());
+                for (int i = from; i < to; i++) {
+                    final double value = data1[i - offset1];
+                    if (value > thresholdLo && !(value >= thresholdHi)) {
+                        if (++currentLength >= winLength) {
+                            state.addWindow(i - winLength + 1);
+                        }
+                    } else {
+                        currentLength = 0;
+                    }
+                }
+                break;
+            }
+
+            default:
+                throw new IllegalStateException(query.getType() + " is not a forward search");
+        }
+
+        state.currentLength = currentLength;
+    }
+
+    private void scanBackward(final QueryState state, final int from, final int to) {
+
+        final SwingQuery query = state.query;
+        final double[] data = this.blockData[query.getChannel1().ordinal()];
+        final int offset = this.blockOffset[query.getChannel1().ordinal()];
+        final double thresholdLo = query.getThresholdLo();
+        final double thresholdHi = SearchKernels.rangeHi(query.getThresholdHi());
+        final int winLength = query.getWinLength();
+        int currentLength = state.currentLength;
+
+        for (int i = from; i > to; i--) {
+            final double value = data[i - offset];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    state.finish(i + winLength - 1);
+                    return;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        state.currentLength = currentLength;
+    }
+
+    private static final class QueryState {
+
+        private final SwingQuery query;
+        private int currentLength;
+        private int index = -1;
+        private boolean done;
+        private int[] starts;
+        private int startCount;
+
+        private QueryState(final SwingQuery query) {
+            this.query = query;
+        }
+
+        // Whether the query reads any sample of [from, to)
+        private boolean overlaps(final int from, final int to) {
+
+            if (this.query.isForward()) {
+                return this.query.getIndexBegin() < to && this.query.getIndexEnd() > from;
+            }
+
+            return this.query.getIndexEnd() + 1 < to && this.query.getIndexBegin() + 1 > from;
+        }
+
+        private void finish(final int index) {
+            this.index = index;
+            this.done = true;
+        }
+
+        private void addWindow(final int start) {
+
+            if (this.starts == null) {
+                this.starts = new int[INITIAL_RESULT_CAPACITY];
+            } else if (this.startCount == this.starts.length) {
+                this.starts = Arrays.copyOf(this.starts, this.startCount * 2);
+            }
+
+            this.starts[this.startCount++] = start;
+        }
+
+        private SwingQueryResult toResult() {
+
+            if (this.query.getType() != SwingQuery.Type.MULTI_CONTINUITY_WITHIN_RANGE) {
+                return new SwingQueryResult(this.index, null);
+            }
+
+            final int winLength = this.query.getWinLength();
+            final int[][] windows = new int[this.startCount][];
+            for (int i = 0; i < this.startCount; i++) {
+                windows[i] = new int[]{this.starts[i], this.starts[i] + winLength - 1};
+            }
+
+            return new SwingQueryResult(windows.length > 0 ? windows[0][0] : -1, windows);
+        }
+    }
+}
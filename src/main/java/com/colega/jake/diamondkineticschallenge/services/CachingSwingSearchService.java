@@ -0,0 +1,368 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * SwingSearchService that remembers the results of the Swing searches, keyed by swing identity and the query. A
+ * repeated query costs a hash lookup. Entries are evicted least recently used first once either the entry count or
+ * the estimated result size goes over its bound.
+ *
+ * Swings are immutable once built, so a result stays valid for as long as the swing it was computed on. Keys only
+ * hold their swing weakly, so the cache never keeps a swing alive, and entries of collected swings are dropped. The
+ * byte bound therefore counts the cached results only, never the swings they were computed on.
+ *
+ * Lookups read a concurrent map without locking. Hits are recorded in a buffer that is replayed into the recency
+ * order under the lock, right away when the lock is free and otherwise by the next writer, so readers never wait on
+ * each other. Searches on a miss run outside the lock.
+ */
+public class CachingSwingSearchService extends SwingSearchService {
+
+    // Rough heap cost of one entry without its windows: key, query, result and map node
+    private static final long ENTRY_BYTES = 192;
+    // Rough heap cost of one [begin, end] window and its slot in the outer array
+    private static final long WINDOW_BYTES = 32;
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Hits waiting to be replayed beyond this are dropped, recency then lags a little under heavy contention
+    private static final int MAX_PENDING_READS = 1 << 10;
+
+    private final ConcurrentHashMap<CacheKey, SwingQueryResult> entries = new ConcurrentHashMap<>();
+
+    // Recency order of the keys in entries, oldest first, and the result bytes, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<CacheKey, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final ConcurrentLinkedQueue<CacheKey> pendingReads = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingReadCount = new AtomicInteger();
+    private final ReferenceQueue<Swing> collectedSwings = new ReferenceQueue<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public CachingSwingSearchService(final int maxEntries, final long maxBytes) {
+        this(maxEntries, maxBytes, ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    }
+
+    public CachingSwingSearchService(
+            final int maxEntries,
+            final long maxBytes,
+            final ForkJoinPool pool,
+            final int parallelThreshold
+    ) {
+
+        super(pool, parallelThreshold);
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries (" + maxEntries + ") is not positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes (" + maxBytes + ") is not positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int searchContinuityAboveValue(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        final CacheKey key = new CacheKey(
+                swing, SwingQuery.continuityAboveValue(channel, indexBegin, indexEnd, threshold, winLength)
+        );
+
+        final SwingQueryResult cached = this.get(key);
+        if (cached != null) {
+            return cached.getIndex();
+        }
+
+        final int index = super.searchContinuityAboveValue(swing, channel, indexBegin, indexEnd, threshold, winLength);
+        this.put(key, new SwingQueryResult(index, null));
+
+        return index;
+    }
+
+    @Override
+    public int backSearchContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final CacheKey key = new CacheKey(
+                swing, SwingQuery.backContinuityWithinRange(channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength)
+        );
+
+        final SwingQueryResult cached = this.get(key);
+        if (cached != null) {
+            return cached.getIndex();
+        }
+
+        final int index = super.backSearchContinuityWithinRange(
+                swing, channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+        );
+        this.put(key, new SwingQueryResult(index, null));
+
+        return index;
+    }
+
+    @Override
+    public int searchContinuityAboveValueTwoSignals(
+            final Swing swing,
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        final CacheKey key = new CacheKey(
+                swing,
+                SwingQuery.continuityAboveValueTwoSignals(channel1, channel2, indexBegin, indexEnd, threshold1, threshold2, winLength)
+        );
+
+        final SwingQueryResult cached = this.get(key);
+        if (cached != null) {
+            return cached.getIndex();
+        }
+
+        final int index = super.searchContinuityAboveValueTwoSignals(
+                swing, channel1, channel2, indexBegin, indexEnd, threshold1, threshold2, winLength
+        );
+        this.put(key, new SwingQueryResult(index, null));
+
+        return index;
+    }
+
+    @Override
+    public int[][] searchMultiContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final CacheKey key = new CacheKey(
+                swing, SwingQuery.multiContinuityWithinRange(channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength)
+        );
+
+        // Callers may modify the windows they get, so the cache hands out copies
+        final SwingQueryResult cached = this.get(key);
+        if (cached != null) {
+            return copyOf(cached.getWindows());
+        }
+
+        final int[][] windows = super.searchMultiContinuityWithinRange(
+                swing, channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+        );
+        this.put(key, new SwingQueryResult(windows.length > 0 ? windows[0][0] : -1, copyOf(windows)));
+
+        return windows;
+    }
+
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+
+    public int getEntryCount() {
+        return this.entries.size();
+    }
+
+    // Estimated heap held by the cached results
+    public long getEstimatedBytes() {
+        this.lock.lock();
+        try {
+            return this.bytes;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.entries.clear();
+            this.order.clear();
+            this.bytes = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private SwingQueryResult get(final CacheKey key) {
+
+        final SwingQueryResult result = this.entries.get(key);
+        if (result == null) {
+            this.missCount.incrementAndGet();
+            return null;
+        }
+
+        this.hitCount.incrementAndGet();
+        if (this.pendingReadCount.incrementAndGet() <= MAX_PENDING_READS) {
+            this.pendingReads.add(key);
+        } else {
+            this.pendingReadCount.decrementAndGet();
+        }
+        if (this.lock.tryLock()) {
+            try {
+                this.drainPendingReads();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        return result;
+    }
+
+    private void put(final CacheKey key, final SwingQueryResult result) {
+
+        final long weight = weightOf(result);
+
+        // A result too large to ever fit is not cached rather than flushing everything else
+        if (weight > this.maxBytes) {
+            return;
+        }
+
+        this.lock.lock();
+        try {
+            this.drainPendingReads();
+            this.dropCollectedSwings();
+
+            final CacheKey stored = key.register(this.collectedSwings);
+            final SwingQueryResult previous = this.entries.put(stored, result);
+            if (previous != null) {
+                this.bytes -= weightOf(previous);
+            }
+            this.order.put(stored, Boolean.TRUE);
+            this.bytes += weight;
+
+            final Iterator<CacheKey> eldest = this.order.keySet().iterator();
+            while (this.order.size() > this.maxEntries || this.bytes > this.maxBytes) {
+                this.bytes -= weightOf(this.entries.remove(eldest.next()));
+                eldest.remove();
+                this.evictionCount.incrementAndGet();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Replays recorded hits into the recency order, keys evicted since they were read are skipped. Holds the lock
+    private void drainPendingReads() {
+        CacheKey key;
+        while ((key = this.pendingReads.poll()) != null) {
+            this.pendingReadCount.decrementAndGet();
+            this.order.get(key);
+        }
+    }
+
+    // Removes the entries of swings that have been garbage collected. Holds the lock
+    private void dropCollectedSwings() {
+        Reference<? extends Swing> collected;
+        while ((collected = this.collectedSwings.poll()) != null) {
+            final SwingQueryResult result = this.entries.remove(collected);
+            if (result != null) {
+                this.order.remove(collected);
+                this.bytes -= weightOf(result);
+            }
+        }
+    }
+
+    private static long weightOf(final SwingQueryResult result) {
+        return ENTRY_BYTES + (result.getWindows() != null ? result.getWindows().length * WINDOW_BYTES : 0);
+    }
+
+    private static int[][] copyOf(final int[][] windows) {
+
+        final int[][] copy = new int[windows.length][];
+        for (int i = 0; i < windows.length; i++) {
+            copy[i] = windows[i].clone();
+        }
+
+        return copy;
+    }
+
+    /*
+     * Swings are matched by identity, a content hash would cost a full scan per lookup. The swing is held weakly, a
+     * key whose swing was collected only equals itself, so it can still be removed but never matches a lookup.
+     */
+    private static final class CacheKey extends WeakReference<Swing> {
+
+        private final SwingQuery query;
+        private final int hash;
+
+        private CacheKey(final Swing swing, final SwingQuery query) {
+            this(swing, query, null);
+        }
+
+        private CacheKey(final Swing swing, final SwingQuery query, final ReferenceQueue<Swing> queue) {
+            super(swing, queue);
+            this.query = query;
+            this.hash = 31 * System.identityHashCode(swing) + query.hashCode();
+        }
+
+        // Copy of this lookup key that is queued once its swing is collected, for storing in the cache
+        private CacheKey register(final ReferenceQueue<Swing> queue) {
+            return new CacheKey(this.get(), this.query, queue);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+
+            final CacheKey other = (CacheKey) o;
+            final Swing swing = this.get();
+            return swing != null && swing == other.get() && this.query.equals(other.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Push-based counterpart of the forward SwingSearchService searches for live sensor streams. Samples are fed one at
+ * a time or in batches and the listener is told about each window as soon as its last sample arrives. Only the
+ * length of the current run is kept, so every sample costs O(1) and nothing of the stream is buffered.
+ *
+ * Indices count samples from the first one accepted since creation or the last reset, windows are reported as
+ * inclusive [begin, end] pairs like the multi window search returns.
+ */
+public final class ContinuityDetector {
+
+    @FunctionalInterface
+    public interface WindowListener {
+        void onWindow(long indexBegin, long indexEnd);
+    }
+
+    // A sample passes when value > thresholdLo && !(value >= thresholdHi), NaN leaves the range unbounded above. Only
+    // the above value factories leave it unbounded, a caller's thresholdHi goes through SearchKernels.rangeHi
+    private final double thresholdLo;
+    private final double thresholdHi;
+    private final double threshold2;
+    private final boolean twoSignals;
+    private final boolean multi;
+    private final int winLength;
+    private final WindowListener listener;
+
+    private long sampleCount;
+    private int currentLength;
+    private boolean done;
+
+    // Searches that are not bounded above ignore thresholdHi
+    private ContinuityDetector(
+            final double thresholdLo,
+            final boolean bounded,
+            final double thresholdHi,
+            final double threshold2,
+            final boolean twoSignals,
+            final boolean multi,
+            final int winLength,
+            final WindowListener listener
+    ) {
+
+        final List<String> problems = new ArrayList<>();
+        if (winLength <= 0) {
+            problems.add("winLength (" + winLength + ") is not positive");
+        }
+        if (bounded && thresholdLo > thresholdHi) {
+            problems.add("thresholdLo (" + thresholdLo + ") is greater than thresholdHi (" + thresholdHi + ")");
+        }
+        if (listener == null) {
+            problems.add("listener is null");
+        }
+        if (!problems.isEmpty()) {
+            throw new InvalidInputException(problems.toString());
+        }
+
+        this.thresholdLo = thresholdLo;
+        this.thresholdHi = bounded ? SearchKernels.rangeHi(thresholdHi) : Double.NaN;
+        this.threshold2 = threshold2;
+        this.twoSignals = twoSignals;
+        this.multi = multi;
+        this.winLength = winLength;
+        this.listener = listener;
+    }
+
+    // Reports the first winLength samples above threshold, like searchContinuityAboveValue
+    public static ContinuityDetector continuityAboveValue(
+            final double threshold,
+            final int winLength,
+            final WindowListener listener
+    ) {
+        return new ContinuityDetector(threshold, false, 0, 0, false, false, winLength, listener);
+    }
+
+    // Reports the first winLength samples strictly between the thresholds
+    public static ContinuityDetector continuityWithinRange(
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final WindowListener listener
+    ) {
+        return new ContinuityDetector(thresholdLo, true, thresholdHi, 0, false, false, winLength, listener);
+    }
+
+    // Reports the first winLength sample pairs above their thresholds, like searchContinuityAboveValueTwoSignals
+    public static ContinuityDetector continuityAboveValueTwoSignals(
+            final double threshold1,
+            final double threshold2,
+            final int winLength,
+            final WindowListener listener
+    ) {
+        return new ContinuityDetector(threshold1, false, 0, threshold2, true, false, winLength, listener);
+    }
+
+    // Reports every window of winLength samples strictly between the thresholds, like searchMultiContinuityWithinRange
+    public static ContinuityDetector multiContinuityWithinRange(
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final WindowListener listener
+    ) {
+        return new ContinuityDetector(thresholdLo, true, thresholdHi, 0, false, true, winLength, listener);
+    }
+
+    public void accept(final double value) {
+
+        this.requireSignals(false);
+
+        this.step(value > this.thresholdLo && !(value >= this.thresholdHi));
+    }
+
+    public void accept(final double value1, final double value2) {
+
+        this.requireSignals(true);
+
+        this.step(value1 > this.thresholdLo && value2 > this.threshold2);
+    }
+
+    public void accept(final double[] values, final int offset, final int length) {
+
+        this.requireSignals(false);
+        checkBatch(values.length, offset, length);
+
+        final double thresholdLo = this.thresholdLo;
+        final double thresholdHi = this.thresholdHi;
+        for (int i = offset; i < offset + length; i++) {
+            final double value = values[i];
+            this.step(value > thresholdLo && !(value >= thresholdHi));
+        }
+    }
+
+    public void accept(final double[] values1, final double[] values2, final int offset, final int length) {
+
+        this.requireSignals(true);
+        checkBatch(values1.length, offset, length);
+        checkBatch(values2.length, offset, length);
+
+        final double threshold1 = this.thresholdLo;
+        final double threshold2 = this.threshold2;
+        for (int i = offset; i < offset + length; i++) {
+            this.step(values1[i] > threshold1 && values2[i] > threshold2);
+        }
+    }
+
+    // Number of samples accepted so far, the index the next sample will get
+    public long getSampleCount() {
+        return this.sampleCount;
+    }
+
+    // Whether a single window detector has reported its window, later samples are only counted
+    public boolean isDone() {
+        return this.done;
+    }
+
+    // Forgets the current run and restarts the indices at zero, as if the detector were new
+    public void reset() {
+        this.sampleCount = 0;
+        this.currentLength = 0;
+        this.done = false;
+    }
+
+    private void step(final boolean passes) {
+
+        final long index = this.sampleCount++;
+        if (this.done) {
+            return;
+        }
+
+        if (!passes) {
+            this.currentLength = 0;
+            return;
+        }
+
+        // The run length is capped at winLength, which is all the multi window search needs to keep firing
+        if (this.currentLength < this.winLength) {
+            this.currentLength++;
+        }
+
+        if (this.currentLength == this.winLength) {
+            this.done = !this.multi;
+            this.listener.onWindow(index - this.winLength + 1, index);
+        }
+    }
+
+    private void requireSignals(final boolean twoSignals) {
+        if (this.twoSignals != twoSignals) {
+            throw new IllegalStateException(
+                    "Detector expects " + (this.twoSignals ? "two signals" : "one signal") + " per sample"
+            );
+        }
+    }
+
+    private static void checkBatch(final int dataLength, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset > dataLength - length) {
+            throw new IndexOutOfBoundsException(
+                    "offset (" + offset + ") and length (" + length + ") out of bounds for " + dataLength + " samples"
+            );
+        }
+    }
+}
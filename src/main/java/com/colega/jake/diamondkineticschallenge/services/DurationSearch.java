@@ -0,0 +1,147 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.SwingColumn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Searches for runs of passing samples that last at least minDuration on the time column, for sensors whose sample
+ * rate is not fixed. A window [indexBegin, indexEnd] lasts time(indexEnd) - time(indexBegin), so a single passing
+ * sample is a window of duration 0. Columns are read in place, the time column is only read at passing samples.
+ *
+ * A sample passes when value > thresholdLo && !(value >= thresholdHi), NaN leaves the range unbounded above.
+ */
+final class DurationSearch {
+
+    private DurationSearch() {}
+
+    // First window to reach minDuration within [indexBegin, indexEnd), null if there is none
+    static SwingTimeWindow searchForward(
+            final SwingColumn time,
+            final SwingColumn data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double minDuration
+    ) {
+
+        int runBegin = -1;
+        double runBeginTime = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = data.get(i);
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                final double sampleTime = time.get(i);
+                if (runBegin < 0) {
+                    runBegin = i;
+                    runBeginTime = sampleTime;
+                }
+                if (sampleTime - runBeginTime >= minDuration) {
+                    return new SwingTimeWindow(runBegin, i, runBeginTime, sampleTime);
+                }
+            } else {
+                runBegin = -1;
+            }
+        }
+
+        return null;
+    }
+
+    static SwingTimeWindow searchForwardTwoSignals(
+            final SwingColumn time,
+            final SwingColumn data1,
+            final SwingColumn data2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final double minDuration
+    ) {
+
+        int runBegin = -1;
+        double runBeginTime = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data1.get(i) > threshold1 && data2.get(i) > threshold2) {
+                final double sampleTime = time.get(i);
+                if (runBegin < 0) {
+                    runBegin = i;
+                    runBeginTime = sampleTime;
+                }
+                if (sampleTime - runBeginTime >= minDuration) {
+                    return new SwingTimeWindow(runBegin, i, runBeginTime, sampleTime);
+                }
+            } else {
+                runBegin = -1;
+            }
+        }
+
+        return null;
+    }
+
+    // First window to reach minDuration walking down (indexEnd, indexBegin], null if there is none
+    static SwingTimeWindow searchBackward(
+            final SwingColumn time,
+            final SwingColumn data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double minDuration
+    ) {
+
+        int runTop = -1;
+        double runTopTime = 0;
+        for (int i = indexBegin; i > indexEnd; i--) {
+            final double value = data.get(i);
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                final double sampleTime = time.get(i);
+                if (runTop < 0) {
+                    runTop = i;
+                    runTopTime = sampleTime;
+                }
+                if (runTopTime - sampleTime >= minDuration) {
+                    return new SwingTimeWindow(i, runTop, sampleTime, runTopTime);
+                }
+            } else {
+                runTop = -1;
+            }
+        }
+
+        return null;
+    }
+
+    // Every start within [indexBegin, indexEnd) with the first end at which its window reaches minDuration, in order
+    static List<SwingTimeWindow> searchMulti(
+            final SwingColumn time,
+            final SwingColumn data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double minDuration
+    ) {
+
+        final List<SwingTimeWindow> windows = new ArrayList<>();
+
+        // Ends only move forward as starts do, so the next start waiting for its end is all that is kept
+        int nextBegin = -1;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = data.get(i);
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (nextBegin < 0) {
+                    nextBegin = i;
+                }
+                final double sampleTime = time.get(i);
+                while (nextBegin <= i && sampleTime - time.get(nextBegin) >= minDuration) {
+                    windows.add(new SwingTimeWindow(nextBegin, i, time.get(nextBegin), sampleTime));
+                    nextBegin++;
+                }
+            } else {
+                nextBegin = -1;
+            }
+        }
+
+        return windows;
+    }
+}
@@ -0,0 +1,275 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import java.util.Arrays;
+
+/*
+ * Sorted runs of sample indices as [start, end), packed into one int array as start0, end0, start1, end1, ... Runs
+ * are never empty and never overlap or touch, so a run is always maximal, and every operation keeps that form.
+ * Sets are immutable: extract one per channel and condition with SwingSearchService.extractIntervals, keep it, and
+ * answer compound queries by combining sets without reading samples again.
+ *
+ * intersect, union and difference walk both sets once, in time linear in their run counts.
+ */
+public final class IntervalSet {
+
+    private static final IntervalSet EMPTY = new IntervalSet(new int[0]);
+
+    private final int[] bounds;
+
+    // bounds must already be sorted, non-empty, non-touching runs, and is not copied
+    IntervalSet(final int[] bounds) {
+        this.bounds = bounds;
+    }
+
+    public static IntervalSet empty() {
+        return EMPTY;
+    }
+
+    // Runs may be given in any order, overlapping or touching, they are merged
+    public static IntervalSet of(final int[]... runs) {
+
+        final int[][] sorted = runs.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a[0], b[0]));
+
+        final Builder builder = new Builder(sorted.length);
+        for (final int[] run : sorted) {
+            if (run.length != 2 || run[0] > run[1]) {
+                throw new IllegalArgumentException("Run " + Arrays.toString(run) + " is not a [start, end) pair");
+            }
+            builder.add(run[0], run[1]);
+        }
+
+        return builder.build();
+    }
+
+    // Number of runs
+    public int size() {
+        return this.bounds.length >> 1;
+    }
+
+    public boolean isEmpty() {
+        return this.bounds.length == 0;
+    }
+
+    public int getStart(final int run) {
+        return this.bounds[checkRun(run) << 1];
+    }
+
+    // Exclusive
+    public int getEnd(final int run) {
+        return this.bounds[(checkRun(run) << 1) + 1];
+    }
+
+    // Number of indices covered by all runs
+    public long getCoveredLength() {
+        long covered = 0;
+        for (int i = 0; i < this.bounds.length; i += 2) {
+            covered += this.bounds[i + 1] - this.bounds[i];
+        }
+        return covered;
+    }
+
+    // Start of the first run at least minLength long, -1 if there is none
+    public int firstStart(final int minLength) {
+        for (int i = 0; i < this.bounds.length; i += 2) {
+            if (this.bounds[i + 1] - this.bounds[i] >= minLength) {
+                return this.bounds[i];
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(final int index) {
+
+        // Index of the first bound above index, inside a run when that is an end
+        int lo = 0;
+        int hi = this.bounds.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (this.bounds[mid] <= index) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return (lo & 1) == 1;
+    }
+
+    public IntervalSet intersect(final IntervalSet other) {
+
+        final int[] a = this.bounds;
+        final int[] b = other.bounds;
+        final Builder builder = new Builder(Integer.min(a.length, b.length));
+
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            final int start = Integer.max(a[i], b[j]);
+            final int end = Integer.min(a[i + 1], b[j + 1]);
+            if (start < end) {
+                builder.add(start, end);
+            }
+            // The run ending first cannot overlap anything further in the other set
+            if (a[i + 1] < b[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+
+        return builder.build();
+    }
+
+    public IntervalSet union(final IntervalSet other) {
+
+        final int[] a = this.bounds;
+        final int[] b = other.bounds;
+        final Builder builder = new Builder((a.length + b.length) >> 1);
+
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] <= b[j])) {
+                builder.add(a[i], a[i + 1]);
+                i += 2;
+            } else {
+                builder.add(b[j], b[j + 1]);
+                j += 2;
+            }
+        }
+
+        return builder.build();
+    }
+
+    // Indices in this set but not in other
+    public IntervalSet difference(final IntervalSet other) {
+
+        final int[] a = this.bounds;
+        final int[] b = other.bounds;
+        final Builder builder = new Builder((a.length + b.length) >> 1);
+
+        int j = 0;
+        for (int i = 0; i < a.length; i += 2) {
+
+            int start = a[i];
+            final int end = a[i + 1];
+
+            // Runs of other ending before this run starts can't cut it or any later run
+            while (j < b.length && b[j + 1] <= start) {
+                j += 2;
+            }
+
+            // Each run of other starting inside this run cuts it, the last one may also cut the next run
+            int k = j;
+            while (k < b.length && b[k] < end) {
+                if (b[k] > start) {
+                    builder.add(start, b[k]);
+                }
+                start = Integer.max(start, b[k + 1]);
+                k += 2;
+            }
+            if (start < end) {
+                builder.add(start, end);
+            }
+        }
+
+        return builder.build();
+    }
+
+    // Runs at least minLength long
+    public IntervalSet withMinLength(final int minLength) {
+
+        final Builder builder = new Builder(this.size());
+        for (int i = 0; i < this.bounds.length; i += 2) {
+            if (this.bounds[i + 1] - this.bounds[i] >= minLength) {
+                builder.add(this.bounds[i], this.bounds[i + 1]);
+            }
+        }
+
+        return builder.build();
+    }
+
+    // Runs as [start, end) pairs
+    public int[][] toArray() {
+
+        final int[][] runs = new int[this.size()][];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = new int[]{this.bounds[i << 1], this.bounds[(i << 1) + 1]};
+        }
+
+        return runs;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntervalSet)) {
+            return false;
+        }
+
+        return Arrays.equals(this.bounds, ((IntervalSet) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.bounds);
+    }
+
+    @Override
+    public String toString() {
+
+        final StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < this.bounds.length; i += 2) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('[').append(this.bounds[i]).append(", ").append(this.bounds[i + 1]).append(')');
+        }
+
+        return builder.append('}').toString();
+    }
+
+    private int checkRun(final int run) {
+        if (run < 0 || run >= this.size()) {
+            throw new IndexOutOfBoundsException("run (" + run + ") out of bounds for " + this.size() + " runs");
+        }
+        return run;
+    }
+
+    // Collects runs added in order of start, merging a run into the previous one when they overlap or touch
+    static final class Builder {
+
+        private int[] bounds;
+        private int length;
+
+        Builder(final int expectedRuns) {
+            this.bounds = new int[Integer.max(2, expectedRuns << 1)];
+        }
+
+        void add(final int start, final int end) {
+
+            if (start >= end) {
+                return;
+            }
+
+            if (this.length > 0 && start <= this.bounds[this.length - 1]) {
+                this.bounds[this.length - 1] = Integer.max(this.bounds[this.length - 1], end);
+                return;
+            }
+
+            if (this.length == this.bounds.length) {
+                this.bounds = Arrays.copyOf(this.bounds, this.length * 2);
+            }
+            this.bounds[this.length++] = start;
+            this.bounds[this.length++] = end;
+        }
+
+        IntervalSet build() {
+            return this.length == 0 ? EMPTY : new IntervalSet(Arrays.copyOf(this.bounds, this.length));
+        }
+    }
+}
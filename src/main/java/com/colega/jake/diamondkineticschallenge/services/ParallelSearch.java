@@ -0,0 +1,248 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntBinaryOperator;
+
+/*
+ * Splits a search range into chunks searched concurrently with the sequential kernels. Runs crossing chunk
+ * boundaries are stitched afterwards in chunk order from the passing samples at either edge of each chunk, which
+ * only needs up to winLength - 1 samples per edge, so results match the sequential search exactly.
+ */
+final class ParallelSearch {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int INITIAL_RESULT_CAPACITY = 16;
+
+    private final ForkJoinPool pool;
+
+    ParallelSearch(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    int searchAbove(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+        return this.searchForward(
+                indexBegin,
+                indexEnd,
+                winLength,
+                (from, to) -> SearchKernels.searchAbove(data, from, to, threshold, winLength),
+                (from, to) -> SearchKernels.runLengthForward(data, from, to, threshold, Double.NaN),
+                (from, to) -> SearchKernels.runLengthBackward(data, from, to, threshold, Double.NaN)
+        );
+    }
+
+    int searchAboveTwoSignals(
+            final double[] data1,
+            final double[] data2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+        return this.searchForward(
+                indexBegin,
+                indexEnd,
+                winLength,
+                (from, to) -> SearchKernels.searchAboveTwoSignals(data1, data2, from, to, threshold1, threshold2, winLength),
+                (from, to) -> SearchKernels.runLengthForwardTwoSignals(data1, data2, from, to, threshold1, threshold2),
+                (from, to) -> SearchKernels.runLengthBackwardTwoSignals(data1, data2, from, to, threshold1, threshold2)
+        );
+    }
+
+    int backSearchWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final int chunkSize = this.chunkSize(indexBegin - indexEnd, winLength);
+        final int waveSize = this.pool.getParallelism();
+
+        // Chunks cover (chunkEnd, chunkBegin], walking down
+        int carry = 0;
+        for (long waveBegin = indexBegin; waveBegin > indexEnd; waveBegin -= (long) chunkSize * waveSize) {
+
+            final int chunkCount = (int) Long.min(waveSize, (waveBegin - indexEnd + chunkSize - 1) / chunkSize);
+            final int waveTop = (int) waveBegin;
+            final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunkCount];
+            for (int c = 0; c < chunkCount; c++) {
+                final int chunkBegin = waveTop - c * chunkSize;
+                final int chunkEnd = Integer.max(indexEnd, chunkBegin - chunkSize);
+                tasks[c] = this.pool.submit(() ->
+                        SearchKernels.backSearchWithinRange(data, chunkBegin, chunkEnd, thresholdLo, thresholdHi, winLength)
+                );
+            }
+
+            for (int c = 0; c < chunkCount; c++) {
+
+                final int chunkBegin = waveTop - c * chunkSize;
+                final int chunkEnd = Integer.max(indexEnd, chunkBegin - chunkSize);
+
+                if (carry > 0) {
+                    final int head = SearchKernels.runLengthBackward(
+                            data, chunkBegin, Integer.max(chunkEnd, chunkBegin - (winLength - carry)), thresholdLo, thresholdHi
+                    );
+                    if (carry + head >= winLength) {
+                        cancel(tasks);
+                        return chunkBegin + carry;
+                    }
+                }
+
+                final int hit = (Integer) tasks[c].join();
+                if (hit != -1) {
+                    cancel(tasks);
+                    return hit;
+                }
+
+                final int chunkLength = chunkBegin - chunkEnd;
+                final int tail = SearchKernels.runLengthForward(
+                        data, chunkEnd + 1, chunkEnd + 1 + Integer.min(chunkLength, winLength - 1), thresholdLo, thresholdHi
+                );
+                carry = tail == chunkLength ? carry + tail : tail;
+            }
+        }
+
+        return -1;
+    }
+
+    int[] searchMultiWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final int chunkSize = this.chunkSize(indexEnd - indexBegin, winLength);
+        final int chunkCount = (int) (((long) indexEnd - indexBegin + chunkSize - 1) / chunkSize);
+
+        final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            final int chunkBegin = indexBegin + c * chunkSize;
+            final int chunkEnd = Integer.min(indexEnd, chunkBegin + chunkSize);
+            tasks[c] = this.pool.submit(() ->
+                    SearchKernels.searchMultiWithinRange(data, chunkBegin, chunkEnd, thresholdLo, thresholdHi, winLength)
+            );
+        }
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        // Passing samples right before the chunk, capped at the winLength - 1 that can still start a window
+        int carry = 0;
+        for (int c = 0; c < chunkCount; c++) {
+
+            final int chunkBegin = indexBegin + c * chunkSize;
+            final int chunkEnd = Integer.min(indexEnd, chunkBegin + chunkSize);
+
+            // Windows starting before the chunk and ending inside it
+            if (carry > 0) {
+                final int head = SearchKernels.runLengthForward(
+                        data, chunkBegin, Integer.min(chunkEnd, chunkBegin + winLength - 1), thresholdLo, thresholdHi
+                );
+                for (int start = chunkBegin - carry; start < chunkBegin && start + winLength <= chunkBegin + head; start++) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = start;
+                }
+            }
+
+            final int[] chunkStarts = (int[]) tasks[c].join();
+            if (count + chunkStarts.length > starts.length) {
+                starts = Arrays.copyOf(starts, Integer.max(count * 2, count + chunkStarts.length));
+            }
+            System.arraycopy(chunkStarts, 0, starts, count, chunkStarts.length);
+            count += chunkStarts.length;
+
+            final int chunkLength = chunkEnd - chunkBegin;
+            final int tail = SearchKernels.runLengthBackward(
+                    data, chunkEnd - 1, chunkEnd - 1 - Integer.min(chunkLength, winLength - 1), thresholdLo, thresholdHi
+            );
+            carry = Integer.min(winLength - 1, tail == chunkLength ? carry + tail : tail);
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    // First-hit forward search, chunk searches run a wave at a time so an early hit stops the scan
+    private int searchForward(
+            final int indexBegin,
+            final int indexEnd,
+            final int winLength,
+            final IntBinaryOperator chunkSearch,
+            final IntBinaryOperator headLength,
+            final IntBinaryOperator tailLength
+    ) {
+
+        final int chunkSize = this.chunkSize(indexEnd - indexBegin, winLength);
+        final int waveSize = this.pool.getParallelism();
+
+        int carry = 0;
+        for (long waveBegin = indexBegin; waveBegin < indexEnd; waveBegin += (long) chunkSize * waveSize) {
+
+            final int chunkCount = (int) Long.min(waveSize, (indexEnd - waveBegin + chunkSize - 1) / chunkSize);
+            final int waveStart = (int) waveBegin;
+            final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunkCount];
+            for (int c = 0; c < chunkCount; c++) {
+                final int chunkBegin = waveStart + c * chunkSize;
+                final int chunkEnd = Integer.min(indexEnd, chunkBegin + chunkSize);
+                tasks[c] = this.pool.submit(() -> chunkSearch.applyAsInt(chunkBegin, chunkEnd));
+            }
+
+            for (int c = 0; c < chunkCount; c++) {
+
+                final int chunkBegin = waveStart + c * chunkSize;
+                final int chunkEnd = Integer.min(indexEnd, chunkBegin + chunkSize);
+
+                // A run carried in from earlier chunks starts before any window inside this one
+                if (carry > 0) {
+                    final int head = headLength.applyAsInt(chunkBegin, Integer.min(chunkEnd, chunkBegin + winLength - carry));
+                    if (carry + head >= winLength) {
+                        cancel(tasks);
+                        return chunkBegin - carry;
+                    }
+                }
+
+                final int hit = (Integer) tasks[c].join();
+                if (hit != -1) {
+                    cancel(tasks);
+                    return hit;
+                }
+
+                // Without a hit every run in the chunk is shorter than winLength, so the tail is too
+                final int chunkLength = chunkEnd - chunkBegin;
+                final int tail = tailLength.applyAsInt(chunkEnd - 1, chunkEnd - 1 - Integer.min(chunkLength, winLength - 1));
+                carry = tail == chunkLength ? carry + tail : tail;
+            }
+        }
+
+        return -1;
+    }
+
+    private int chunkSize(final int length, final int winLength) {
+
+        final long perThread = (long) length / ((long) this.pool.getParallelism() * CHUNKS_PER_THREAD) + 1;
+
+        return (int) Long.max(Long.max(MIN_CHUNK_SIZE, winLength), perThread);
+    }
+
+    private static void cancel(final ForkJoinTask<?>[] tasks) {
+        for (final ForkJoinTask<?> task : tasks) {
+            task.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+/*
+ * Aggregate of the last length samples added, updated in O(1) amortized per sample. Only the window's samples are
+ * kept, in a ring. Sums for MEAN and RMS are compensated so adding and removing samples does not drift, and MIN and
+ * MAX keep a monotonic deque of the samples that can still become the extreme.
+ *
+ * The aggregate is NaN until length samples have been added and while any NaN sample is in the window.
+ */
+final class RollingAggregate {
+
+    private final SwingAggregate aggregate;
+    private final int length;
+
+    // Sample number n is values[n % length] while in the window
+    private final double[] values;
+    private long count;
+    private int nanCount;
+
+    // Neumaier sum of the window's values, or of their squares for RMS
+    private double sum;
+    private double compensation;
+
+    // Sample numbers in the window, oldest first, whose values are strictly better than every later one
+    private final long[] deque;
+    private int dequeHead;
+    private int dequeSize;
+
+    RollingAggregate(final SwingAggregate aggregate, final int length) {
+        this.aggregate = aggregate;
+        this.length = length;
+        this.values = new double[length];
+        final boolean extreme = aggregate == SwingAggregate.MIN || aggregate == SwingAggregate.MAX;
+        this.deque = extreme ? new long[length] : null;
+    }
+
+    // Adds the next sample and returns the aggregate of the window ending at it
+    double add(final double value) {
+
+        final int slot = (int) (this.count % this.length);
+        if (this.count >= this.length) {
+            this.remove(this.values[slot]);
+        }
+        this.values[slot] = value;
+        this.insert(value);
+        this.count++;
+
+        if (this.count < this.length || this.nanCount > 0) {
+            return Double.NaN;
+        }
+
+        switch (this.aggregate) {
+            case MEAN:
+                return (this.sum + this.compensation) / this.length;
+            case RMS:
+                return Math.sqrt(Double.max(0, this.sum + this.compensation) / this.length);
+            default:
+                return this.values[(int) (this.deque[this.dequeHead] % this.length)];
+        }
+    }
+
+    private void insert(final double value) {
+
+        if (Double.isNaN(value)) {
+            this.nanCount++;
+            return;
+        }
+
+        switch (this.aggregate) {
+            case MEAN:
+                this.accumulate(value);
+                break;
+            case RMS:
+                this.accumulate(value * value);
+                break;
+            default:
+                this.push(value);
+        }
+    }
+
+    private void remove(final double value) {
+
+        if (Double.isNaN(value)) {
+            this.nanCount--;
+            return;
+        }
+
+        switch (this.aggregate) {
+            case MEAN:
+                this.accumulate(-value);
+                break;
+            case RMS:
+                this.accumulate(-(value * value));
+                break;
+            default:
+                // The oldest sample leaves the window, it is at the head if it is still in the deque
+                if (this.dequeSize > 0 && this.deque[this.dequeHead] == this.count - this.length) {
+                    this.dequeHead = (this.dequeHead + 1) % this.length;
+                    this.dequeSize--;
+                }
+        }
+    }
+
+    private void accumulate(final double x) {
+        final double t = this.sum + x;
+        if (Math.abs(this.sum) >= Math.abs(x)) {
+            this.compensation += (this.sum - t) + x;
+        } else {
+            this.compensation += (x - t) + this.sum;
+        }
+        this.sum = t;
+    }
+
+    // Drops the samples the new one beats from the tail, they can never be the extreme again
+    private void push(final double value) {
+
+        final boolean max = this.aggregate == SwingAggregate.MAX;
+        while (this.dequeSize > 0) {
+            final int tail = (this.dequeHead + this.dequeSize - 1) % this.length;
+            final double tailValue = this.values[(int) (this.deque[tail] % this.length)];
+            if (max ? tailValue > value : tailValue < value) {
+                break;
+            }
+            this.dequeSize--;
+        }
+
+        this.deque[(this.dequeHead + this.dequeSize) % this.length] = this.count;
+        this.dequeSize++;
+    }
+}
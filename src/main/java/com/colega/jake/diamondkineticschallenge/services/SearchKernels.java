@@ -0,0 +1,765 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.SwingColumn;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+// Search loops, one per query shape and storage type so each loop stays monomorphic and allocation free. Range tests
+// are value > thresholdLo && !(value >= thresholdHi) like the zone map and index paths, so storage never changes results
+final class SearchKernels {
+
+    private static final int INITIAL_RESULT_CAPACITY = 16;
+
+    private SearchKernels() {}
+
+    // A caller's upper threshold in kernel form. The kernels read NaN as no upper bound, but a caller's NaN bound lets
+    // no sample through, as value < NaN never holds, so it becomes negative infinity
+    static double rangeHi(final double thresholdHi) {
+        return Double.isNaN(thresholdHi) ? Double.NEGATIVE_INFINITY : thresholdHi;
+    }
+
+    static int searchAbove(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data[i] > threshold) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int searchAboveTwoSignals(
+            final double[] data1,
+            final double[] data2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data1[i] > threshold1 && data2[i] > threshold2) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    // Backward search reports the first index found walking down, i.e. the top of the window
+    static int backSearchWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i > indexEnd; i--) {
+            final double value = data[i];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i + winLength - 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    // Window starts, in order, of every winLength run within the range
+    static int[] searchMultiWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        // Every sample that extends a run to at least winLength completes one more window
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = data[i];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength >= winLength) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    // Float columns, thresholds are converted with FloatArrayColumn.lowerBound and upperBound
+    static int searchAbove(
+            final float[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final float threshold,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data[i] > threshold) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int searchAboveTwoSignals(
+            final float[] data1,
+            final float[] data2,
+            final int indexBegin,
+            final int indexEnd,
+            final float threshold1,
+            final float threshold2,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data1[i] > threshold1 && data2[i] > threshold2) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int backSearchWithinRange(
+            final float[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final float thresholdLo,
+            final float thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i > indexEnd; i--) {
+            final float value = data[i];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i + winLength - 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int[] searchMultiWithinRange(
+            final float[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final float thresholdLo,
+            final float thresholdHi,
+            final int winLength
+    ) {
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        // Every sample that extends a run to at least winLength completes one more window
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final float value = data[i];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength >= winLength) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    // Fixed point columns, thresholds are raw bounds from ShortArrayColumn.lowerBound and upperBound
+    static int searchAbove(
+            final short[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final int threshold,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data[i] > threshold) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int searchAboveTwoSignals(
+            final short[] data1,
+            final short[] data2,
+            final int indexBegin,
+            final int indexEnd,
+            final int threshold1,
+            final int threshold2,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data1[i] > threshold1 && data2[i] > threshold2) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int backSearchWithinRange(
+            final short[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final int thresholdLo,
+            final int thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i > indexEnd; i--) {
+            final int value = data[i];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i + winLength - 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int[] searchMultiWithinRange(
+            final short[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final int thresholdLo,
+            final int thresholdHi,
+            final int winLength
+    ) {
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        // Every sample that extends a run to at least winLength completes one more window
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final int value = data[i];
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength >= winLength) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    // Conditions are tested in order and a sample fails at its first failing condition
+    static int searchAllConditions(
+            final double[][] data,
+            final double[] signs,
+            final double[] los,
+            final double[] his,
+            final int indexBegin,
+            final int indexEnd,
+            final int winLength
+    ) {
+
+        final int conditionCount = data.length;
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+
+            int k = 0;
+            while (k < conditionCount) {
+                final double value = signs[k] * data[k][i];
+                if (!(value > los[k] && !(value >= his[k]))) {
+                    break;
+                }
+                k++;
+            }
+
+            if (k == conditionCount) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    // Maximal runs of samples passing sign * value > lo && !(sign * value >= hi) within [indexBegin, indexEnd)
+    static IntervalSet passingRuns(
+            final double[] data,
+            final double sign,
+            final double lo,
+            final double hi,
+            final int indexBegin,
+            final int indexEnd
+    ) {
+
+        int[] bounds = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        int runStart = -1;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = sign * data[i];
+            if (value > lo && !(value >= hi)) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            } else if (runStart >= 0) {
+                if (count == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, count * 2);
+                }
+                bounds[count++] = runStart;
+                bounds[count++] = i;
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = runStart;
+            bounds[count++] = indexEnd;
+        }
+
+        return count == 0 ? IntervalSet.empty() : new IntervalSet(Arrays.copyOf(bounds, count));
+    }
+
+    // Like searchAbove with the aggregate of the window ending at each sample in place of the sample, NaN thresholdHi
+    // means no upper bound
+    static int searchRollingWithinRange(
+            final double[] data,
+            final RollingAggregate rolling,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = rolling.add(data[i]);
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    // Passing samples from "from" up to the exclusive "to" before the first failure, NaN thresholdHi means no upper bound
+    static int runLengthForward(
+            final double[] data,
+            final int from,
+            final int to,
+            final double thresholdLo,
+            final double thresholdHi
+    ) {
+
+        int i = from;
+        while (i < to && data[i] > thresholdLo && !(data[i] >= thresholdHi)) {
+            i++;
+        }
+
+        return i - from;
+    }
+
+    // Passing samples from "from" down to the exclusive "to" before the first failure, NaN thresholdHi means no upper bound
+    static int runLengthBackward(
+            final double[] data,
+            final int from,
+            final int to,
+            final double thresholdLo,
+            final double thresholdHi
+    ) {
+
+        int i = from;
+        while (i > to && data[i] > thresholdLo && !(data[i] >= thresholdHi)) {
+            i--;
+        }
+
+        return from - i;
+    }
+
+    static int runLengthForwardTwoSignals(
+            final double[] data1,
+            final double[] data2,
+            final int from,
+            final int to,
+            final double threshold1,
+            final double threshold2
+    ) {
+
+        int i = from;
+        while (i < to && data1[i] > threshold1 && data2[i] > threshold2) {
+            i++;
+        }
+
+        return i - from;
+    }
+
+    static int runLengthBackwardTwoSignals(
+            final double[] data1,
+            final double[] data2,
+            final int from,
+            final int to,
+            final double threshold1,
+            final double threshold2
+    ) {
+
+        int i = from;
+        while (i > to && data1[i] > threshold1 && data2[i] > threshold2) {
+            i--;
+        }
+
+        return from - i;
+    }
+
+    static int searchAbove(
+            final DoubleBuffer data,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data.get(i) > threshold) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int searchAboveTwoSignals(
+            final DoubleBuffer data1,
+            final DoubleBuffer data2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            if (data1.get(i) > threshold1 && data2.get(i) > threshold2) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int backSearchWithinRange(
+            final DoubleBuffer data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i > indexEnd; i--) {
+            final double value = data.get(i);
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i + winLength - 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static int[] searchMultiWithinRange(
+            final DoubleBuffer data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        // Every sample that extends a run to at least winLength completes one more window
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = data.get(i);
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength >= winLength) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    static IntervalSet passingRuns(
+            final DoubleBuffer data,
+            final double sign,
+            final double lo,
+            final double hi,
+            final int indexBegin,
+            final int indexEnd
+    ) {
+
+        int[] bounds = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        int runStart = -1;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = sign * data.get(i);
+            if (value > lo && !(value >= hi)) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            } else if (runStart >= 0) {
+                if (count == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, count * 2);
+                }
+                bounds[count++] = runStart;
+                bounds[count++] = i;
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = runStart;
+            bounds[count++] = indexEnd;
+        }
+
+        return count == 0 ? IntervalSet.empty() : new IntervalSet(Arrays.copyOf(bounds, count));
+    }
+
+    static int searchRollingWithinRange(
+            final DoubleBuffer data,
+            final RollingAggregate rolling,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = rolling.add(data.get(i));
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    // Other encodings are read a sample at a time through the column, only the samples of [indexBegin, indexEnd) are
+    // widened and no copy of the column is made
+    static int searchAllConditions(
+            final SwingColumn[] data,
+            final double[] signs,
+            final double[] los,
+            final double[] his,
+            final int indexBegin,
+            final int indexEnd,
+            final int winLength
+    ) {
+
+        final int conditionCount = data.length;
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+
+            int k = 0;
+            while (k < conditionCount) {
+                final double value = signs[k] * data[k].get(i);
+                if (!(value > los[k] && !(value >= his[k]))) {
+                    break;
+                }
+                k++;
+            }
+
+            if (k == conditionCount) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    static IntervalSet passingRuns(
+            final SwingColumn data,
+            final double sign,
+            final double lo,
+            final double hi,
+            final int indexBegin,
+            final int indexEnd
+    ) {
+
+        int[] bounds = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        int runStart = -1;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = sign * data.get(i);
+            if (value > lo && !(value >= hi)) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            } else if (runStart >= 0) {
+                if (count == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, count * 2);
+                }
+                bounds[count++] = runStart;
+                bounds[count++] = i;
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = runStart;
+            bounds[count++] = indexEnd;
+        }
+
+        return count == 0 ? IntervalSet.empty() : new IntervalSet(Arrays.copyOf(bounds, count));
+    }
+
+    static int searchRollingWithinRange(
+            final SwingColumn data,
+            final RollingAggregate rolling,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            final double value = rolling.add(data.get(i));
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+// Rolling aggregate of the last aggLength samples that an aggregate search tests instead of the raw sample
+public enum SwingAggregate {
+
+    // Arithmetic mean
+    MEAN,
+
+    // Square root of the mean of the squares
+    RMS,
+
+    MIN,
+
+    MAX
+}
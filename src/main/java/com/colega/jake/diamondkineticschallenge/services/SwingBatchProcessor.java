@@ -0,0 +1,117 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.SwingDataNotFoundException;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * Reads, parses and searches every capture in a directory on a fixed pool of workers. Each worker handles a whole
+ * file, so reads of some files overlap the parsing and searching of others. The work queue is bounded and a full
+ * queue makes the listing thread process the next file itself, which throttles listing to the pace of the workers.
+ */
+public class SwingBatchProcessor {
+
+    private final SwingSearchService swingSearchService;
+    private final int threads;
+    private final int queueCapacity;
+
+    public SwingBatchProcessor(final SwingSearchService swingSearchService, final int threads, final int queueCapacity) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads (" + threads + ") is not positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity (" + queueCapacity + ") is not positive");
+        }
+        this.swingSearchService = swingSearchService;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /*
+     * Runs the queries built for each file matching glob in directory and hands every file's result to sink as soon
+     * as it is ready, in completion order. Calls to sink never overlap. A file that cannot be read or searched is
+     * reported with its error and does not stop the batch.
+     */
+    public SwingBatchReport process(
+            final Path directory,
+            final String glob,
+            final Function<Swing, List<SwingQuery>> queries,
+            final Consumer<SwingFileResult> sink
+    ) {
+
+        final AtomicLong fileCount = new AtomicLong();
+        final AtomicLong failedFileCount = new AtomicLong();
+        final AtomicLong sampleCount = new AtomicLong();
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                this.threads,
+                this.threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        final long start = System.nanoTime();
+        try (final DirectoryStream<Path> paths = Files.newDirectoryStream(directory, glob)) {
+            for (final Path path : paths) {
+                executor.execute(() -> {
+
+                    final SwingFileResult result = this.processFile(path, queries);
+
+                    fileCount.incrementAndGet();
+                    sampleCount.addAndGet(result.getSampleCount());
+                    if (!result.isSuccessful()) {
+                        failedFileCount.incrementAndGet();
+                    }
+
+                    synchronized (sink) {
+                        sink.accept(result);
+                    }
+                });
+            }
+        } catch (final IOException e) {
+            throw new SwingDataNotFoundException(e);
+        } finally {
+            awaitShutdown(executor);
+        }
+
+        return new SwingBatchReport(fileCount.get(), failedFileCount.get(), sampleCount.get(), System.nanoTime() - start);
+    }
+
+    private SwingFileResult processFile(final Path path, final Function<Swing, List<SwingQuery>> queries) {
+
+        int length = 0;
+        try {
+            final Swing swing = new Swing(path);
+            length = swing.getLength();
+
+            return new SwingFileResult(path, length, this.swingSearchService.searchBatch(swing, queries.apply(swing)), null);
+        } catch (final Throwable e) {
+            // Errors too, so a file fails the same way on a worker and on the listing thread
+            return new SwingFileResult(path, length, null, e);
+        }
+    }
+
+    private static void awaitShutdown(final ThreadPoolExecutor executor) {
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
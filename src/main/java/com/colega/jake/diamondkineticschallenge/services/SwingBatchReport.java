@@ -0,0 +1,61 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import java.util.concurrent.TimeUnit;
+
+// Totals of one SwingBatchProcessor run
+public final class SwingBatchReport {
+
+    private final long fileCount;
+    private final long failedFileCount;
+    private final long sampleCount;
+    private final long elapsedNanos;
+
+    SwingBatchReport(final long fileCount, final long failedFileCount, final long sampleCount, final long elapsedNanos) {
+        this.fileCount = fileCount;
+        this.failedFileCount = failedFileCount;
+        this.sampleCount = sampleCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Every file matched, failed ones included
+    public long getFileCount() {
+        return this.fileCount;
+    }
+
+    public long getFailedFileCount() {
+        return this.failedFileCount;
+    }
+
+    public long getSampleCount() {
+        return this.sampleCount;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(this.fileCount);
+    }
+
+    public double getSamplesPerSecond() {
+        return perSecond(this.sampleCount);
+    }
+
+    private double perSecond(final long count) {
+        return this.elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d files (%d failed), %d samples in %.3f s: %.1f files/s, %.0f samples/s",
+                this.fileCount,
+                this.failedFileCount,
+                this.sampleCount,
+                this.elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1),
+                this.getFilesPerSecond(),
+                this.getSamplesPerSecond()
+        );
+    }
+}
@@ -0,0 +1,82 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+
+/*
+ * Per-channel test of a composite search. Every condition is evaluated as sign * value > lo && !(sign * value >= hi),
+ * with NaN leaving hi unbounded, so above, below and within range share one comparison in the search loop. A NaN
+ * thresholdHi given to withinRange lets nothing through, see SearchKernels.rangeHi.
+ */
+public final class SwingCondition {
+
+    private final SwingChannel channel;
+    private final double thresholdLo;
+    private final double thresholdHi;
+
+    // Kernel form of the test
+    private final double sign;
+    private final double lo;
+    private final double hi;
+
+    private SwingCondition(
+            final SwingChannel channel,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double sign,
+            final double lo,
+            final double hi
+    ) {
+        this.channel = channel;
+        this.thresholdLo = thresholdLo;
+        this.thresholdHi = thresholdHi;
+        this.sign = sign;
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    // value > threshold
+    public static SwingCondition above(final SwingChannel channel, final double threshold) {
+        return new SwingCondition(channel, threshold, Double.MAX_VALUE, 1, threshold, Double.NaN);
+    }
+
+    // value < threshold, tested as -value > -threshold
+    public static SwingCondition below(final SwingChannel channel, final double threshold) {
+        return new SwingCondition(channel, -Double.MAX_VALUE, threshold, -1, -threshold, Double.NaN);
+    }
+
+    // thresholdLo < value < thresholdHi
+    public static SwingCondition withinRange(final SwingChannel channel, final double thresholdLo, final double thresholdHi) {
+        return new SwingCondition(channel, thresholdLo, thresholdHi, 1, thresholdLo, SearchKernels.rangeHi(thresholdHi));
+    }
+
+    public SwingChannel getChannel() {
+        return this.channel;
+    }
+
+    // -Double.MAX_VALUE for below conditions
+    public double getThresholdLo() {
+        return this.thresholdLo;
+    }
+
+    // Double.MAX_VALUE for above conditions
+    public double getThresholdHi() {
+        return this.thresholdHi;
+    }
+
+    double getSign() {
+        return this.sign;
+    }
+
+    double getLo() {
+        return this.lo;
+    }
+
+    double getHi() {
+        return this.hi;
+    }
+
+    boolean passes(final double value) {
+        final double signed = this.sign * value;
+        return signed > this.lo && !(signed >= this.hi);
+    }
+}
@@ -0,0 +1,42 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Outcome of running the batch queries over one capture file
+public final class SwingFileResult {
+
+    private final Path path;
+    private final int sampleCount;
+    private final List<SwingQueryResult> results;
+    private final Throwable error;
+
+    SwingFileResult(final Path path, final int sampleCount, final List<SwingQueryResult> results, final Throwable error) {
+        this.path = path;
+        this.sampleCount = sampleCount;
+        this.results = results;
+        this.error = error;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    public int getSampleCount() {
+        return this.sampleCount;
+    }
+
+    // One result per query in query order, null when the file failed
+    public List<SwingQueryResult> getResults() {
+        return this.results;
+    }
+
+    // Why the file could not be read or searched, null on success
+    public Throwable getError() {
+        return this.error;
+    }
+
+    public boolean isSuccessful() {
+        return this.error == null;
+    }
+}
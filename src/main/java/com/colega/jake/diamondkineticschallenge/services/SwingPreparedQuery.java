@@ -0,0 +1,29 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+
+// A SwingQuery validated once against one swing by SwingSearchService.prepare, each execute skips validation
+public final class SwingPreparedQuery {
+
+    private final SwingSearchService swingSearchService;
+    private final Swing swing;
+    private final SwingQuery query;
+
+    SwingPreparedQuery(final SwingSearchService swingSearchService, final Swing swing, final SwingQuery query) {
+        this.swingSearchService = swingSearchService;
+        this.swing = swing;
+        this.query = query;
+    }
+
+    public Swing getSwing() {
+        return this.swing;
+    }
+
+    public SwingQuery getQuery() {
+        return this.query;
+    }
+
+    public SwingQueryResult execute() {
+        return this.swingSearchService.execute(this.swing, this.query);
+    }
+}
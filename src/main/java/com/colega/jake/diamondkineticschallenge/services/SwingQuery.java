@@ -0,0 +1,174 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+
+import java.util.Objects;
+
+// Descriptor of one SwingSearchService search against the channels of a swing, answered by searchBatch
+public final class SwingQuery {
+
+    public enum Type {
+        CONTINUITY_ABOVE_VALUE,
+        BACK_CONTINUITY_WITHIN_RANGE,
+        CONTINUITY_ABOVE_VALUE_TWO_SIGNALS,
+        MULTI_CONTINUITY_WITHIN_RANGE
+    }
+
+    private final Type type;
+    private final SwingChannel channel1;
+    private final SwingChannel channel2;
+    private final int indexBegin;
+    private final int indexEnd;
+    private final double thresholdLo;
+    private final double thresholdHi;
+    private final double threshold2;
+    private final int winLength;
+
+    private SwingQuery(
+            final Type type,
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double threshold2,
+            final int winLength
+    ) {
+        this.type = type;
+        this.channel1 = channel1;
+        this.channel2 = channel2;
+        this.indexBegin = indexBegin;
+        this.indexEnd = indexEnd;
+        this.thresholdLo = thresholdLo;
+        this.thresholdHi = thresholdHi;
+        this.threshold2 = threshold2;
+        this.winLength = winLength;
+    }
+
+    public static SwingQuery continuityAboveValue(
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+        return new SwingQuery(
+                Type.CONTINUITY_ABOVE_VALUE, channel, null, indexBegin, indexEnd, threshold, Double.MAX_VALUE, 0, winLength
+        );
+    }
+
+    public static SwingQuery backContinuityWithinRange(
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+        return new SwingQuery(
+                Type.BACK_CONTINUITY_WITHIN_RANGE, channel, null, indexBegin, indexEnd, thresholdLo, thresholdHi, 0, winLength
+        );
+    }
+
+    public static SwingQuery continuityAboveValueTwoSignals(
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+        return new SwingQuery(
+                Type.CONTINUITY_ABOVE_VALUE_TWO_SIGNALS, channel1, channel2, indexBegin, indexEnd, threshold1, Double.MAX_VALUE, threshold2, winLength
+        );
+    }
+
+    public static SwingQuery multiContinuityWithinRange(
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+        return new SwingQuery(
+                Type.MULTI_CONTINUITY_WITHIN_RANGE, channel, null, indexBegin, indexEnd, thresholdLo, thresholdHi, 0, winLength
+        );
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public SwingChannel getChannel1() {
+        return this.channel1;
+    }
+
+    // Only set for two signal queries
+    public SwingChannel getChannel2() {
+        return this.channel2;
+    }
+
+    public int getIndexBegin() {
+        return this.indexBegin;
+    }
+
+    public int getIndexEnd() {
+        return this.indexEnd;
+    }
+
+    // threshold or threshold1 of the above value queries
+    public double getThresholdLo() {
+        return this.thresholdLo;
+    }
+
+    // Double.MAX_VALUE for the above value queries
+    public double getThresholdHi() {
+        return this.thresholdHi;
+    }
+
+    // threshold2 of two signal queries
+    public double getThreshold2() {
+        return this.threshold2;
+    }
+
+    public int getWinLength() {
+        return this.winLength;
+    }
+
+    public boolean isForward() {
+        return this.type != Type.BACK_CONTINUITY_WITHIN_RANGE;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SwingQuery)) {
+            return false;
+        }
+
+        final SwingQuery other = (SwingQuery) o;
+        return this.type == other.type
+                && this.channel1 == other.channel1
+                && this.channel2 == other.channel2
+                && this.indexBegin == other.indexBegin
+                && this.indexEnd == other.indexEnd
+                && Double.compare(this.thresholdLo, other.thresholdLo) == 0
+                && Double.compare(this.thresholdHi, other.thresholdHi) == 0
+                && Double.compare(this.threshold2, other.threshold2) == 0
+                && this.winLength == other.winLength;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                this.type, this.channel1, this.channel2, this.indexBegin, this.indexEnd,
+                this.thresholdLo, this.thresholdHi, this.threshold2, this.winLength
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+// Answer to a SwingQuery, in the shape the matching SwingSearchService method returns
+public final class SwingQueryResult {
+
+    private final int index;
+    private final int[][] windows;
+    private final boolean complete;
+
+    SwingQueryResult(final int index, final int[][] windows) {
+        this(index, windows, true);
+    }
+
+    SwingQueryResult(final int index, final int[][] windows, final boolean complete) {
+        this.index = index;
+        this.windows = windows;
+        this.complete = complete;
+    }
+
+    // Result of a single window search, -1 when nothing was found
+    public int getIndex() {
+        return this.index;
+    }
+
+    // Result of a multi window search, null for single window searches
+    public int[][] getWindows() {
+        return this.windows;
+    }
+
+    // False when an asynchronous multi window search ran out of time, windows then only cover the range searched
+    public boolean isComplete() {
+        return this.complete;
+    }
+}
@@ -1,16 +1,57 @@
 package com.colega.jake.diamondkineticschallenge.services;
 
 import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
+import com.colega.jake.diamondkineticschallenge.models.DoubleArrayColumn;
+import com.colega.jake.diamondkineticschallenge.models.DoubleBufferColumn;
+import com.colega.jake.diamondkineticschallenge.models.FloatArrayColumn;
+import com.colega.jake.diamondkineticschallenge.models.ShortArrayColumn;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import com.colega.jake.diamondkineticschallenge.models.SwingColumn;
+import com.colega.jake.diamondkineticschallenge.models.SwingColumnIndex;
+import com.colega.jake.diamondkineticschallenge.models.SwingZoneMap;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.Predicate;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.RealMatrix;
 
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 public class SwingSearchService {
 
+    // Upper threshold handed to the kernels for searches bounded only from below. A caller's NaN upper threshold is
+    // turned into an empty range by SearchKernels.rangeHi first, so only the above value searches pass it
+    private static final double UNBOUNDED = Double.NaN;
+
+    // Samples read per condition to estimate its selectivity before a composite search
+    private static final int SELECTIVITY_SAMPLES = 256;
+
+    // Searches over at least this many samples of a heap array are split across the pool
+    private final int parallelThreshold;
+    private final ParallelSearch parallelSearch;
+
+    public SwingSearchService() {
+        this(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    }
+
+    public SwingSearchService(final int parallelThreshold) {
+        this(ForkJoinPool.commonPool(), parallelThreshold);
+    }
+
+    public SwingSearchService(final ForkJoinPool pool, final int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+        this.parallelSearch = new ParallelSearch(pool);
+    }
+
     public int searchContinuityAboveValue(
             final double[] data,
             final int indexBegin,
@@ -19,28 +60,43 @@ public class SwingSearchService {
             final int winLength
     ) {
 
-        final RealMatrix dataMatrix = new Array2DRowRealMatrix(new double[][]{data});
-
         // All problems now captured and thrown
         invalidInputTest(
-                dataMatrix,
+                data.length,
                 indexBegin,
                 indexEnd,
-                new double[]{threshold},
-                new double[]{Double.MAX_VALUE},
+                threshold,
+                Double.MAX_VALUE,
                 winLength,
                 true
         );
 
-        return search(
-                dataMatrix,
+        return this.searchAbove(data, indexBegin, indexEnd, threshold, winLength);
+    }
+
+    public int searchContinuityAboveValue(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                column.size(),
                 indexBegin,
                 indexEnd,
+                threshold,
+                Double.MAX_VALUE,
                 winLength,
-                (final double[] values) ->
-                        values[0] > threshold,
                 true
         );
+
+        return this.searchAbove(swing, channel, indexBegin, indexEnd, threshold, winLength);
     }
 
     public int backSearchContinuityWithinRange(
@@ -52,28 +108,46 @@ public class SwingSearchService {
             final int winLength
     ) {
 
-        final RealMatrix dataMatrix = new Array2DRowRealMatrix(new double[][]{data});
-
         // All problems now captured and thrown
         invalidInputTest(
-                dataMatrix,
+                data.length,
                 indexBegin,
                 indexEnd,
-                new double[]{thresholdLo},
-                new double[]{thresholdHi},
+                thresholdLo,
+                thresholdHi,
                 winLength,
                 false
         );
 
-        return search(
-                dataMatrix,
+        return this.backSearchWithinRange(data, indexBegin, indexEnd, thresholdLo, SearchKernels.rangeHi(thresholdHi), winLength);
+    }
+
+    public int backSearchContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                column.size(),
                 indexBegin,
                 indexEnd,
+                thresholdLo,
+                thresholdHi,
                 winLength,
-                (final double[] values) ->
-                        values[0] > thresholdLo && values[0] < thresholdHi,
                 false
         );
+
+        return this.backSearchWithinRange(
+                swing, channel, indexBegin, indexEnd, thresholdLo, SearchKernels.rangeHi(thresholdHi), winLength
+        );
     }
 
     public int searchContinuityAboveValueTwoSignals(
@@ -86,32 +160,77 @@ public class SwingSearchService {
             final int winLength
     ) {
 
-        final RealMatrix dataMatrix = new Array2DRowRealMatrix(new double[][]{data1, data2});
+        // All problems now captured and thrown
+        invalidInputTest(
+                data1.length,
+                data2.length,
+                indexBegin,
+                indexEnd,
+                threshold1,
+                threshold2,
+                winLength
+        );
+
+        return this.searchAboveTwoSignals(data1, data2, indexBegin, indexEnd, threshold1, threshold2, winLength);
+    }
+
+    public int searchContinuityAboveValueTwoSignals(
+            final Swing swing,
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        final SwingColumn column1 = swing.getColumn(channel1);
+        final SwingColumn column2 = swing.getColumn(channel2);
 
         // All problems now captured and thrown
         invalidInputTest(
-                dataMatrix,
+                column1.size(),
+                column2.size(),
                 indexBegin,
                 indexEnd,
-                new double[]{threshold1, threshold2},
-                new double[]{Double.MAX_VALUE, Double.MAX_VALUE},
-                winLength,
-                true
+                threshold1,
+                threshold2,
+                winLength
         );
 
-        return search(
-                dataMatrix,
+        return this.searchAboveTwoSignals(swing, channel1, channel2, indexBegin, indexEnd, threshold1, threshold2, winLength);
+    }
+
+    public int[][] searchMultiContinuityWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                data.length,
                 indexBegin,
                 indexEnd,
+                thresholdLo,
+                thresholdHi,
                 winLength,
-                (final double[] values) ->
-                        values[0] > threshold1 && values[1] > threshold2,
                 true
         );
+
+        return toWindows(
+                this.searchMultiWithinRange(data, indexBegin, indexEnd, thresholdLo, SearchKernels.rangeHi(thresholdHi), winLength),
+                winLength
+        );
     }
 
     public int[][] searchMultiContinuityWithinRange(
-            final double[] data,
+            final Swing swing,
+            final SwingChannel channel,
             final int indexBegin,
             final int indexEnd,
             final double thresholdLo,
@@ -119,114 +238,1102 @@ public class SwingSearchService {
             final int winLength
     ) {
 
-        final RealMatrix dataMatrix = new Array2DRowRealMatrix(new double[][]{data});
+        final SwingColumn column = swing.getColumn(channel);
 
         // All problems now captured and thrown
         invalidInputTest(
-                dataMatrix,
+                column.size(),
                 indexBegin,
                 indexEnd,
-                new double[]{thresholdLo},
-                new double[]{thresholdHi},
+                thresholdLo,
+                thresholdHi,
                 winLength,
                 true
         );
 
-        final List<Integer> results = new ArrayList<>();
-        int currentIndex = indexBegin;
-        while (indexEnd - currentIndex >= winLength) {
+        return toWindows(
+                this.searchMultiWithinRange(
+                        swing, channel, indexBegin, indexEnd, thresholdLo, SearchKernels.rangeHi(thresholdHi), winLength
+                ),
+                winLength
+        );
+    }
 
-            final int result = search(
-                    dataMatrix,
-                    currentIndex,
-                    indexEnd,
-                    winLength,
-                    (final double[] values) ->
-                            values[0] > thresholdLo && values[0] < thresholdHi,
-                    true
-            );
+    // Lazy searchMultiContinuityWithinRange, window starts in order and each window ends winLength - 1 samples later.
+    // The range is scanned as starts are pulled, and no further once maxResults starts have been returned
+    public PrimitiveIterator.OfInt iterateMultiContinuityWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final int maxResults
+    ) {
 
-            if (result != -1) {
-                results.add(result);
-                currentIndex = result + 1;
-            } else {
-                break;
-            }
-        }
+        // All problems now captured and thrown
+        invalidInputTest(
+                data.length,
+                indexBegin,
+                indexEnd,
+                thresholdLo,
+                thresholdHi,
+                winLength,
+                true
+        );
+        invalidMaxResultsTest(maxResults);
 
-        int[][] returnValue = new int[results.size()][2];
-        for (int i = 0; i < results.size(); i++) {
-            returnValue[i] = new int[]{results.get(i), results.get(i) + winLength - 1};
-        }
+        final double hi = SearchKernels.rangeHi(thresholdHi);
+        return new WindowStartIterator(
+                (begin, end) -> this.searchMultiWithinRange(data, begin, end, thresholdLo, hi, winLength),
+                indexBegin,
+                indexEnd,
+                winLength,
+                maxResults
+        );
+    }
+
+    public PrimitiveIterator.OfInt iterateMultiContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final int maxResults
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                column.size(),
+                indexBegin,
+                indexEnd,
+                thresholdLo,
+                thresholdHi,
+                winLength,
+                true
+        );
+        invalidMaxResultsTest(maxResults);
 
-        return returnValue;
+        final double hi = SearchKernels.rangeHi(thresholdHi);
+        return new WindowStartIterator(
+                (begin, end) -> this.searchMultiWithinRange(swing, channel, begin, end, thresholdLo, hi, winLength),
+                indexBegin,
+                indexEnd,
+                winLength,
+                maxResults
+        );
     }
 
-    // Common search method implemented
-    private int search(
-            final RealMatrix data,
+    public IntStream streamMultiContinuityWithinRange(
+            final double[] data,
             final int indexBegin,
             final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
             final int winLength,
-            final Predicate<double[]> indexTest,
-            final boolean forwardSearch
+            final int maxResults
+    ) {
+        return streamOf(this.iterateMultiContinuityWithinRange(
+                data, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength, maxResults
+        ));
+    }
+
+    public IntStream streamMultiContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final int maxResults
     ) {
+        return streamOf(this.iterateMultiContinuityWithinRange(
+                swing, channel, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength, maxResults
+        ));
+    }
 
-        int currentIndex = -1;
-        int currentLength = 0;
+    // First index starting winLength samples that pass every condition, conditions are tested most selective first
+    public int searchContinuityAllConditions(
+            final Swing swing,
+            final List<SwingCondition> conditions,
+            final int indexBegin,
+            final int indexEnd,
+            final int winLength
+    ) {
 
-        // Moved to exclusive indexEnd
-        int i = indexBegin;
-        while ((forwardSearch && i < indexEnd) || (!forwardSearch && i > indexEnd)) {
+        if (CollectionUtils.isEmpty(conditions)) {
+            throw new InvalidInputException("[No conditions provided]");
+        }
 
-            if (indexTest.evaluate(data.getColumn(i))) {
+        final int[] dataLengths = new int[conditions.size()];
+        final double[] thresholdLos = new double[conditions.size()];
+        final double[] thresholdHis = new double[conditions.size()];
+        for (int i = 0; i < conditions.size(); i++) {
+            dataLengths[i] = swing.getColumn(conditions.get(i).getChannel()).size();
+            thresholdLos[i] = conditions.get(i).getThresholdLo();
+            thresholdHis[i] = conditions.get(i).getThresholdHi();
+        }
 
-                if (currentLength == 0) {
-                    currentIndex = i;
-                }
+        // All problems now captured and thrown
+        invalidInputTest(dataLengths, indexBegin, indexEnd, thresholdLos, thresholdHis, winLength, true);
 
-                currentLength++;
+        final SwingCondition[] ordered = orderBySelectivity(swing, conditions, indexBegin, indexEnd);
+        final double[] signs = new double[ordered.length];
+        final double[] los = new double[ordered.length];
+        final double[] his = new double[ordered.length];
+        boolean heap = true;
+        for (int i = 0; i < ordered.length; i++) {
+            signs[i] = ordered[i].getSign();
+            los[i] = ordered[i].getLo();
+            his[i] = ordered[i].getHi();
+            heap &= swing.getColumn(ordered[i].getChannel()) instanceof DoubleArrayColumn;
+        }
 
-                if (currentLength == winLength) {
-                    return currentIndex;
-                }
-            } else {
-                currentLength = 0;
+        if (heap) {
+            final double[][] data = new double[ordered.length][];
+            for (int i = 0; i < ordered.length; i++) {
+                data[i] = ((DoubleArrayColumn) swing.getColumn(ordered[i].getChannel())).getSharedData();
             }
+            return SearchKernels.searchAllConditions(data, signs, los, his, indexBegin, indexEnd, winLength);
+        }
 
-            i += forwardSearch ? 1 : -1;
+        final SwingColumn[] data = new SwingColumn[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            data[i] = swing.getColumn(ordered[i].getChannel());
         }
+        return SearchKernels.searchAllConditions(data, signs, los, his, indexBegin, indexEnd, winLength);
+    }
 
-        return -1;
+    // Maximal runs of samples passing the condition, in one pass over the channel
+    public IntervalSet extractIntervals(final Swing swing, final SwingCondition condition) {
+        return this.extractIntervals(swing, condition, 0, swing.getLength());
     }
 
-    private void invalidInputTest(
-            final RealMatrix data,
+    // Runs are clipped to [indexBegin, indexEnd)
+    public IntervalSet extractIntervals(
+            final Swing swing,
+            final SwingCondition condition,
             final int indexBegin,
-            final int indexEnd,
-            final double[] thresholdLos,
-            final double[] thresholdHis,
-            final int winLength,
-            final boolean forwardSearch
+            final int indexEnd
     ) {
 
-        final List<String> problems = new ArrayList<>();
-        for (int i = 0; i < data.getRowDimension(); i++) {
-            problems.addAll(invalidIndicesTest(indexBegin, indexEnd, data.getRow(i).length, forwardSearch));
-            problems.addAll(invalidWinLengthTest(winLength, data.getRow(i).length));
-        }
+        final SwingColumn column = swing.getColumn(condition.getChannel());
 
-        int thresholdLength = Integer.min(thresholdLos.length, thresholdHis.length);
-        if (thresholdLos.length != data.getRowDimension()) {
-            problems.add("Unequal number of thresholdLo (" + thresholdLos.length + ") and data (" + data.getRowDimension() + ") provided");
+        // All problems now captured and thrown
+        final List<String> problems = invalidIndicesTest(indexBegin, indexEnd, column.size(), true);
+        problems.addAll(invalidThresholdsTest(condition.getThresholdLo(), condition.getThresholdHi()));
+        if (CollectionUtils.isNotEmpty(problems)) {
+            throw new InvalidInputException(problems.toString());
         }
-        if (thresholdHis.length != data.getRowDimension()) {
-            problems.add("Unequal number of thresholdHi (" + thresholdHis.length + ") and data (" + data.getRowDimension() + ") provided");
+
+        if (column instanceof DoubleArrayColumn) {
+            return SearchKernels.passingRuns(
+                    ((DoubleArrayColumn) column).getSharedData(),
+                    condition.getSign(),
+                    condition.getLo(),
+                    condition.getHi(),
+                    indexBegin,
+                    indexEnd
+            );
         }
-        for (int i = 0; i < thresholdLength; i++) {
-            problems.addAll(invalidThresholdsTest(thresholdLos[i], thresholdHis[i]));
+
+        if (column instanceof DoubleBufferColumn) {
+            return SearchKernels.passingRuns(
+                    ((DoubleBufferColumn) column).getSharedBuffer(),
+                    condition.getSign(),
+                    condition.getLo(),
+                    condition.getHi(),
+                    indexBegin,
+                    indexEnd
+            );
         }
 
+        return SearchKernels.passingRuns(
+                column, condition.getSign(), condition.getLo(), condition.getHi(), indexBegin, indexEnd
+        );
+    }
+
+    /*
+     * Aggregate searches test a rolling aggregate of the aggLength samples ending at each index instead of the sample,
+     * for noisy channels, without building a smoothed copy. Aggregates only take samples within
+     * [indexBegin, indexEnd), so the first aggLength - 1 indices of the range never pass. Results are the first index
+     * of the window like searchContinuityAboveValue, -1 when nothing was found.
+     */
+    public int searchAggregateContinuityAboveValue(
+            final double[] data,
+            final SwingAggregate aggregate,
+            final int aggLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                data.length,
+                indexBegin,
+                indexEnd,
+                threshold,
+                Double.MAX_VALUE,
+                winLength,
+                true
+        );
+        invalidAggregateTest(aggregate, aggLength, data.length);
+
+        return SearchKernels.searchRollingWithinRange(
+                data, new RollingAggregate(aggregate, aggLength), indexBegin, indexEnd, threshold, UNBOUNDED, winLength
+        );
+    }
+
+    public int searchAggregateContinuityAboveValue(
+            final Swing swing,
+            final SwingChannel channel,
+            final SwingAggregate aggregate,
+            final int aggLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                column.size(),
+                indexBegin,
+                indexEnd,
+                threshold,
+                Double.MAX_VALUE,
+                winLength,
+                true
+        );
+        invalidAggregateTest(aggregate, aggLength, column.size());
+
+        return searchRollingWithinRange(
+                column, aggregate, aggLength, indexBegin, indexEnd, threshold, UNBOUNDED, winLength
+        );
+    }
+
+    public int searchAggregateContinuityWithinRange(
+            final double[] data,
+            final SwingAggregate aggregate,
+            final int aggLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                data.length,
+                indexBegin,
+                indexEnd,
+                thresholdLo,
+                thresholdHi,
+                winLength,
+                true
+        );
+        invalidAggregateTest(aggregate, aggLength, data.length);
+
+        return SearchKernels.searchRollingWithinRange(
+                data,
+                new RollingAggregate(aggregate, aggLength),
+                indexBegin,
+                indexEnd,
+                thresholdLo,
+                SearchKernels.rangeHi(thresholdHi),
+                winLength
+        );
+    }
+
+    public int searchAggregateContinuityWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final SwingAggregate aggregate,
+            final int aggLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        // All problems now captured and thrown
+        invalidInputTest(
+                column.size(),
+                indexBegin,
+                indexEnd,
+                thresholdLo,
+                thresholdHi,
+                winLength,
+                true
+        );
+        invalidAggregateTest(aggregate, aggLength, column.size());
+
+        return searchRollingWithinRange(
+                column, aggregate, aggLength, indexBegin, indexEnd, thresholdLo, SearchKernels.rangeHi(thresholdHi), winLength
+        );
+    }
+
+    /*
+     * Duration searches take times on the swing's time column instead of indices and a minimum duration instead of a
+     * window length. Forward searches cover timeBegin <= time < timeEnd, backward searches walk down
+     * timeBegin >= time > timeEnd, mapped to indices by binary search on the time column. Single window searches
+     * return null when nothing was found.
+     */
+    public SwingTimeWindow searchContinuityAboveValueForDuration(
+            final Swing swing,
+            final SwingChannel channel,
+            final double timeBegin,
+            final double timeEnd,
+            final double threshold,
+            final double minDuration
+    ) {
+
+        // All problems now captured and thrown
+        invalidTimeInputTest(timeBegin, timeEnd, threshold, Double.MAX_VALUE, minDuration, true);
+
+        return DurationSearch.searchForward(
+                swing.getColumn(SwingChannel.TIME),
+                swing.getColumn(channel),
+                swing.indexOfTime(timeBegin),
+                swing.indexOfTime(timeEnd),
+                threshold,
+                UNBOUNDED,
+                minDuration
+        );
+    }
+
+    public SwingTimeWindow backSearchContinuityWithinRangeForDuration(
+            final Swing swing,
+            final SwingChannel channel,
+            final double timeBegin,
+            final double timeEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double minDuration
+    ) {
+
+        // All problems now captured and thrown
+        invalidTimeInputTest(timeBegin, timeEnd, thresholdLo, thresholdHi, minDuration, false);
+
+        // Last index at or before a time is one before the first index after it
+        return DurationSearch.searchBackward(
+                swing.getColumn(SwingChannel.TIME),
+                swing.getColumn(channel),
+                swing.indexOfTime(Math.nextUp(timeBegin)) - 1,
+                swing.indexOfTime(Math.nextUp(timeEnd)) - 1,
+                thresholdLo,
+                SearchKernels.rangeHi(thresholdHi),
+                minDuration
+        );
+    }
+
+    public SwingTimeWindow searchContinuityAboveValueTwoSignalsForDuration(
+            final Swing swing,
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final double timeBegin,
+            final double timeEnd,
+            final double threshold1,
+            final double threshold2,
+            final double minDuration
+    ) {
+
+        // All problems now captured and thrown
+        invalidTimeInputTest(timeBegin, timeEnd, Double.max(threshold1, threshold2), Double.MAX_VALUE, minDuration, true);
+
+        return DurationSearch.searchForwardTwoSignals(
+                swing.getColumn(SwingChannel.TIME),
+                swing.getColumn(channel1),
+                swing.getColumn(channel2),
+                swing.indexOfTime(timeBegin),
+                swing.indexOfTime(timeEnd),
+                threshold1,
+                threshold2,
+                minDuration
+        );
+    }
+
+    // Every window start with the first sample at which the window reaches minDuration, in order
+    public List<SwingTimeWindow> searchMultiContinuityWithinRangeForDuration(
+            final Swing swing,
+            final SwingChannel channel,
+            final double timeBegin,
+            final double timeEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double minDuration
+    ) {
+
+        // All problems now captured and thrown
+        invalidTimeInputTest(timeBegin, timeEnd, thresholdLo, thresholdHi, minDuration, true);
+
+        return DurationSearch.searchMulti(
+                swing.getColumn(SwingChannel.TIME),
+                swing.getColumn(channel),
+                swing.indexOfTime(timeBegin),
+                swing.indexOfTime(timeEnd),
+                thresholdLo,
+                SearchKernels.rangeHi(thresholdHi),
+                minDuration
+        );
+    }
+
+    // Answers all queries with one sweep per direction over the swing, results are in query order
+    public List<SwingQueryResult> searchBatch(final Swing swing, final List<SwingQuery> queries) {
+
+        for (final SwingQuery query : queries) {
+            this.invalidQueryTest(swing, query);
+        }
+
+        return Arrays.asList(new BatchSearch(swing).run(queries));
+    }
+
+    // Validates the query once, the returned handle then runs it against swing without any further checks
+    public SwingPreparedQuery prepare(final Swing swing, final SwingQuery query) {
+
+        this.invalidQueryTest(swing, query);
+
+        return new SwingPreparedQuery(this, swing, query);
+    }
+
+    SwingQueryResult execute(final Swing swing, final SwingQuery query) {
+
+        switch (query.getType()) {
+
+            case CONTINUITY_ABOVE_VALUE:
+                return new SwingQueryResult(this.searchAbove(
+                        swing, query.getChannel1(), query.getIndexBegin(), query.getIndexEnd(), query.getThresholdLo(), query.getWinLength()
+                ), null);
+
+            case BACK_CONTINUITY_WITHIN_RANGE:
+                return new SwingQueryResult(this.backSearchWithinRange(
+                        swing,
+                        query.getChannel1(),
+                        query.getIndexBegin(),
+                        query.getIndexEnd(),
+                        query.getThresholdLo(),
+                        SearchKernels.rangeHi(query.getThresholdHi()),
+                        query.getWinLength()
+                ), null);
+
+            case CONTINUITY_ABOVE_VALUE_TWO_SIGNALS:
+                return new SwingQueryResult(this.searchAboveTwoSignals(
+                        swing,
+                        query.getChannel1(),
+                        query.getChannel2(),
+                        query.getIndexBegin(),
+                        query.getIndexEnd(),
+                        query.getThresholdLo(),
+                        query.getThreshold2(),
+                        query.getWinLength()
+                ), null);
+
+            case MULTI_CONTINUITY_WITHIN_RANGE: {
+                final int[][] windows = toWindows(this.searchMultiWithinRange(
+                        swing,
+                        query.getChannel1(),
+                        query.getIndexBegin(),
+                        query.getIndexEnd(),
+                        query.getThresholdLo(),
+                        SearchKernels.rangeHi(query.getThresholdHi()),
+                        query.getWinLength()
+                ), query.getWinLength());
+                return new SwingQueryResult(windows.length > 0 ? windows[0][0] : -1, windows);
+            }
+
+            default:
+                throw new IllegalStateException("Unknown query type " + query.getType());
+        }
+    }
+
+    // Swing searches past validation, data is dispatched on the column's storage
+    private int searchAbove(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        final SwingColumnIndex index = swing.getIndex(channel);
+        if (index != null) {
+            return index.searchForward(indexBegin, indexEnd, threshold, UNBOUNDED, winLength);
+        }
+
+        final SwingZoneMap zoneMap = this.zoneMapFor(swing, channel, column, indexEnd - indexBegin);
+        if (zoneMap != null) {
+            return ZoneMapSearch.searchForward(zoneMap, column, indexBegin, indexEnd, threshold, UNBOUNDED, winLength);
+        }
+
+        if (column instanceof DoubleArrayColumn) {
+            return this.searchAbove(
+                    ((DoubleArrayColumn) column).getSharedData(), indexBegin, indexEnd, threshold, winLength
+            );
+        }
+
+        if (column instanceof FloatArrayColumn) {
+            return SearchKernels.searchAbove(
+                    ((FloatArrayColumn) column).getSharedData(), indexBegin, indexEnd, FloatArrayColumn.lowerBound(threshold), winLength
+            );
+        }
+
+        if (column instanceof ShortArrayColumn) {
+            final ShortArrayColumn shorts = (ShortArrayColumn) column;
+            return SearchKernels.searchAbove(
+                    shorts.getSharedData(), indexBegin, indexEnd, shorts.lowerBound(threshold), winLength
+            );
+        }
+
+        return SearchKernels.searchAbove(
+                bufferOf(column), indexBegin, indexEnd, threshold, winLength
+        );
+    }
+
+    private int backSearchWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        final SwingColumnIndex index = swing.getIndex(channel);
+        if (index != null) {
+            return index.searchBackward(indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+        }
+
+        final SwingZoneMap zoneMap = this.zoneMapFor(swing, channel, column, indexBegin - indexEnd);
+        if (zoneMap != null) {
+            return ZoneMapSearch.searchBackward(zoneMap, column, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+        }
+
+        if (column instanceof DoubleArrayColumn) {
+            return this.backSearchWithinRange(
+                    ((DoubleArrayColumn) column).getSharedData(), indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+            );
+        }
+
+        if (column instanceof FloatArrayColumn) {
+            return SearchKernels.backSearchWithinRange(
+                    ((FloatArrayColumn) column).getSharedData(),
+                    indexBegin,
+                    indexEnd,
+                    FloatArrayColumn.lowerBound(thresholdLo),
+                    FloatArrayColumn.upperBound(thresholdHi),
+                    winLength
+            );
+        }
+
+        if (column instanceof ShortArrayColumn) {
+            final ShortArrayColumn shorts = (ShortArrayColumn) column;
+            return SearchKernels.backSearchWithinRange(
+                    shorts.getSharedData(), indexBegin, indexEnd, shorts.lowerBound(thresholdLo), shorts.upperBound(thresholdHi), winLength
+            );
+        }
+
+        return SearchKernels.backSearchWithinRange(
+                bufferOf(column), indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+        );
+    }
+
+    private int searchAboveTwoSignals(
+            final Swing swing,
+            final SwingChannel channel1,
+            final SwingChannel channel2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        final SwingColumn column1 = swing.getColumn(channel1);
+        final SwingColumn column2 = swing.getColumn(channel2);
+
+        final SwingZoneMap zoneMap1 = this.zoneMapFor(swing, channel1, column1, indexEnd - indexBegin);
+        final SwingZoneMap zoneMap2 = zoneMap1 == null ? null : this.zoneMapFor(swing, channel2, column2, indexEnd - indexBegin);
+        if (zoneMap2 != null && zoneMap1.getBlockSize() == zoneMap2.getBlockSize()) {
+            return ZoneMapSearch.searchForwardTwoSignals(
+                    zoneMap1, column1, zoneMap2, column2, indexBegin, indexEnd, threshold1, threshold2, winLength
+            );
+        }
+
+        if (column1 instanceof DoubleArrayColumn && column2 instanceof DoubleArrayColumn) {
+            return this.searchAboveTwoSignals(
+                    ((DoubleArrayColumn) column1).getSharedData(),
+                    ((DoubleArrayColumn) column2).getSharedData(),
+                    indexBegin,
+                    indexEnd,
+                    threshold1,
+                    threshold2,
+                    winLength
+            );
+        }
+
+        if (column1 instanceof FloatArrayColumn && column2 instanceof FloatArrayColumn) {
+            return SearchKernels.searchAboveTwoSignals(
+                    ((FloatArrayColumn) column1).getSharedData(),
+                    ((FloatArrayColumn) column2).getSharedData(),
+                    indexBegin,
+                    indexEnd,
+                    FloatArrayColumn.lowerBound(threshold1),
+                    FloatArrayColumn.lowerBound(threshold2),
+                    winLength
+            );
+        }
+
+        if (column1 instanceof ShortArrayColumn && column2 instanceof ShortArrayColumn) {
+            final ShortArrayColumn shorts1 = (ShortArrayColumn) column1;
+            final ShortArrayColumn shorts2 = (ShortArrayColumn) column2;
+            return SearchKernels.searchAboveTwoSignals(
+                    shorts1.getSharedData(),
+                    shorts2.getSharedData(),
+                    indexBegin,
+                    indexEnd,
+                    shorts1.lowerBound(threshold1),
+                    shorts2.lowerBound(threshold2),
+                    winLength
+            );
+        }
+
+        // Mixed storage falls back to double views
+        return SearchKernels.searchAboveTwoSignals(
+                bufferOf(column1), bufferOf(column2), indexBegin, indexEnd, threshold1, threshold2, winLength
+        );
+    }
+
+    private int[] searchMultiWithinRange(
+            final Swing swing,
+            final SwingChannel channel,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final SwingColumn column = swing.getColumn(channel);
+
+        final SwingColumnIndex index = swing.getIndex(channel);
+        if (index != null) {
+            return index.searchMulti(indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+        }
+
+        final SwingZoneMap zoneMap = this.zoneMapFor(swing, channel, column, indexEnd - indexBegin);
+        if (zoneMap != null) {
+            return ZoneMapSearch.searchMulti(zoneMap, column, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+        }
+
+        if (column instanceof DoubleArrayColumn) {
+            return this.searchMultiWithinRange(
+                    ((DoubleArrayColumn) column).getSharedData(), indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+            );
+        }
+
+        if (column instanceof FloatArrayColumn) {
+            return SearchKernels.searchMultiWithinRange(
+                    ((FloatArrayColumn) column).getSharedData(),
+                    indexBegin,
+                    indexEnd,
+                    FloatArrayColumn.lowerBound(thresholdLo),
+                    FloatArrayColumn.upperBound(thresholdHi),
+                    winLength
+            );
+        }
+
+        if (column instanceof ShortArrayColumn) {
+            final ShortArrayColumn shorts = (ShortArrayColumn) column;
+            return SearchKernels.searchMultiWithinRange(
+                    shorts.getSharedData(), indexBegin, indexEnd, shorts.lowerBound(thresholdLo), shorts.upperBound(thresholdHi), winLength
+            );
+        }
+
+        return SearchKernels.searchMultiWithinRange(
+                bufferOf(column), indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+        );
+    }
+
+    // Each call keeps its own rolling window, so searches share nothing
+    private static int searchRollingWithinRange(
+            final SwingColumn column,
+            final SwingAggregate aggregate,
+            final int aggLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final RollingAggregate rolling = new RollingAggregate(aggregate, aggLength);
+
+        if (column instanceof DoubleArrayColumn) {
+            return SearchKernels.searchRollingWithinRange(
+                    ((DoubleArrayColumn) column).getSharedData(), rolling, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+            );
+        }
+
+        if (column instanceof DoubleBufferColumn) {
+            return SearchKernels.searchRollingWithinRange(
+                    ((DoubleBufferColumn) column).getSharedBuffer(), rolling, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+            );
+        }
+
+        return SearchKernels.searchRollingWithinRange(
+                column, rolling, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+        );
+    }
+
+    // Zone map a search should walk, null when it scans instead. Heap arrays long enough to be split across the pool
+    // are left to the parallel search, without building a map they would not use
+    private SwingZoneMap zoneMapFor(
+            final Swing swing,
+            final SwingChannel channel,
+            final SwingColumn column,
+            final int length
+    ) {
+
+        if (column instanceof DoubleArrayColumn && length >= this.parallelThreshold) {
+            return null;
+        }
+
+        return swing.getZoneMap(channel);
+    }
+
+    // Heap array searches, split across the pool once the range reaches the parallel threshold
+    private int searchAbove(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold,
+            final int winLength
+    ) {
+
+        if (indexEnd - indexBegin >= this.parallelThreshold) {
+            return this.parallelSearch.searchAbove(data, indexBegin, indexEnd, threshold, winLength);
+        }
+
+        return SearchKernels.searchAbove(data, indexBegin, indexEnd, threshold, winLength);
+    }
+
+    private int backSearchWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        if (indexBegin - indexEnd >= this.parallelThreshold) {
+            return this.parallelSearch.backSearchWithinRange(data, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+        }
+
+        return SearchKernels.backSearchWithinRange(data, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+    }
+
+    private int searchAboveTwoSignals(
+            final double[] data1,
+            final double[] data2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        if (indexEnd - indexBegin >= this.parallelThreshold) {
+            return this.parallelSearch.searchAboveTwoSignals(
+                    data1, data2, indexBegin, indexEnd, threshold1, threshold2, winLength
+            );
+        }
+
+        return SearchKernels.searchAboveTwoSignals(data1, data2, indexBegin, indexEnd, threshold1, threshold2, winLength);
+    }
+
+    private int[] searchMultiWithinRange(
+            final double[] data,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        if (indexEnd - indexBegin >= this.parallelThreshold) {
+            return this.parallelSearch.searchMultiWithinRange(data, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+        }
+
+        return SearchKernels.searchMultiWithinRange(data, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength);
+    }
+
+    // Estimates each condition's pass rate from evenly spaced samples of the range, lowest pass rate first
+    private static SwingCondition[] orderBySelectivity(
+            final Swing swing,
+            final List<SwingCondition> conditions,
+            final int indexBegin,
+            final int indexEnd
+    ) {
+
+        final SwingCondition[] ordered = conditions.toArray(new SwingCondition[0]);
+        if (ordered.length == 1) {
+            return ordered;
+        }
+
+        final int step = Integer.max(1, (indexEnd - indexBegin) / SELECTIVITY_SAMPLES);
+        final Map<SwingCondition, Integer> passCounts = new IdentityHashMap<>();
+        for (final SwingCondition condition : ordered) {
+            final SwingColumn column = swing.getColumn(condition.getChannel());
+            int passCount = 0;
+            for (int i = indexBegin; i < indexEnd; i += step) {
+                if (condition.passes(column.get(i))) {
+                    passCount++;
+                }
+            }
+            passCounts.put(condition, passCount);
+        }
+
+        Arrays.sort(ordered, Comparator.comparing(passCounts::get));
+
+        return ordered;
+    }
+
+    private static DoubleBuffer bufferOf(final SwingColumn column) {
+
+        if (column instanceof DoubleBufferColumn) {
+            return ((DoubleBufferColumn) column).getSharedBuffer();
+        }
+
+        return column.getView();
+    }
+
+    private static int[][] toWindows(final int[] starts, final int winLength) {
+
+        final int[][] windows = new int[starts.length][];
+        for (int i = 0; i < starts.length; i++) {
+            windows[i] = new int[]{starts[i], starts[i] + winLength - 1};
+        }
+
+        return windows;
+    }
+
+    private static IntStream streamOf(final PrimitiveIterator.OfInt starts) {
+        return StreamSupport.intStream(
+                Spliterators.spliteratorUnknownSize(
+                        starts, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL
+                ),
+                false
+        );
+    }
+
+    private void invalidQueryTest(final Swing swing, final SwingQuery query) {
+
+        // All problems now captured and thrown
+        if (query.getType() == SwingQuery.Type.CONTINUITY_ABOVE_VALUE_TWO_SIGNALS) {
+            invalidInputTest(
+                    swing.getColumn(query.getChannel1()).size(),
+                    swing.getColumn(query.getChannel2()).size(),
+                    query.getIndexBegin(),
+                    query.getIndexEnd(),
+                    query.getThresholdLo(),
+                    query.getThreshold2(),
+                    query.getWinLength()
+            );
+        } else {
+            invalidInputTest(
+                    swing.getColumn(query.getChannel1()).size(),
+                    query.getIndexBegin(),
+                    query.getIndexEnd(),
+                    query.getThresholdLo(),
+                    query.getThresholdHi(),
+                    query.getWinLength(),
+                    query.isForward()
+            );
+        }
+    }
+
+    // Valid input is checked without allocating, the problem list is only built to report a failure
+    private void invalidInputTest(
+            final int dataLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final boolean forwardSearch
+    ) {
+
+        if (!isValidInput(dataLength, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength, forwardSearch)) {
+            invalidInputTest(
+                    new int[]{dataLength},
+                    indexBegin,
+                    indexEnd,
+                    new double[]{thresholdLo},
+                    new double[]{thresholdHi},
+                    winLength,
+                    forwardSearch
+            );
+        }
+    }
+
+    // Two signal forward search, both signals bounded only from below
+    private void invalidInputTest(
+            final int dataLength1,
+            final int dataLength2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        if (!isValidInput(dataLength1, indexBegin, indexEnd, threshold1, Double.MAX_VALUE, winLength, true)
+                || !isValidInput(dataLength2, indexBegin, indexEnd, threshold2, Double.MAX_VALUE, winLength, true)) {
+            invalidInputTest(
+                    new int[]{dataLength1, dataLength2},
+                    indexBegin,
+                    indexEnd,
+                    new double[]{threshold1, threshold2},
+                    new double[]{Double.MAX_VALUE, Double.MAX_VALUE},
+                    winLength,
+                    true
+            );
+        }
+    }
+
+    private void invalidInputTest(
+            final int[] dataLengths,
+            final int indexBegin,
+            final int indexEnd,
+            final double[] thresholdLos,
+            final double[] thresholdHis,
+            final int winLength,
+            final boolean forwardSearch
+    ) {
+
+        if (thresholdLos.length == dataLengths.length && thresholdHis.length == dataLengths.length) {
+            boolean valid = true;
+            for (int i = 0; i < dataLengths.length && valid; i++) {
+                valid = isValidInput(dataLengths[i], indexBegin, indexEnd, thresholdLos[i], thresholdHis[i], winLength, forwardSearch);
+            }
+            if (valid) {
+                return;
+            }
+        }
+
+        final List<String> problems = new ArrayList<>();
+        for (final int dataLength : dataLengths) {
+            problems.addAll(invalidIndicesTest(indexBegin, indexEnd, dataLength, forwardSearch));
+            problems.addAll(invalidWinLengthTest(winLength, dataLength));
+        }
+
+        int thresholdLength = Integer.min(thresholdLos.length, thresholdHis.length);
+        if (thresholdLos.length != dataLengths.length) {
+            problems.add("Unequal number of thresholdLo (" + thresholdLos.length + ") and data (" + dataLengths.length + ") provided");
+        }
+        if (thresholdHis.length != dataLengths.length) {
+            problems.add("Unequal number of thresholdHi (" + thresholdHis.length + ") and data (" + dataLengths.length + ") provided");
+        }
+        for (int i = 0; i < thresholdLength; i++) {
+            problems.addAll(invalidThresholdsTest(thresholdLos[i], thresholdHis[i]));
+        }
+
+
+        if (CollectionUtils.isNotEmpty(problems)) {
+            throw new InvalidInputException(problems.toString());
+        }
+    }
+
+    // Same rules as the problem list below
+    private static boolean isValidInput(
+            final int dataLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength,
+            final boolean forwardSearch
+    ) {
+
+        final boolean validIndices = indexBegin >= 0
+                && indexBegin <= dataLength
+                && indexEnd >= (forwardSearch ? 0 : -1)
+                && indexEnd <= dataLength
+                && (forwardSearch ? indexBegin <= indexEnd - 1 : indexBegin >= indexEnd + 1);
+
+        return validIndices
+                && winLength > 0
+                && winLength < dataLength
+                && !(thresholdLo > thresholdHi);
+    }
+
+    private void invalidAggregateTest(final SwingAggregate aggregate, final int aggLength, final int dataLength) {
+
+        final List<String> problems = new ArrayList<>();
+        if (aggregate == null) {
+            problems.add("No aggregate provided");
+        }
+        if (aggLength <= 0) {
+            problems.add("aggLength (" + aggLength + ") is not positive");
+        }
+        if (aggLength > dataLength) {
+            problems.add("aggLength (" + aggLength + ") is too large for number of data provided (" + dataLength + ")");
+        }
+
+        if (CollectionUtils.isNotEmpty(problems)) {
+            throw new InvalidInputException(problems.toString());
+        }
+    }
+
+    private void invalidMaxResultsTest(final int maxResults) {
+        if (maxResults <= 0) {
+            throw new InvalidInputException("[maxResults (" + maxResults + ") is not positive]");
+        }
+    }
+
+    private void invalidTimeInputTest(
+            final double timeBegin,
+            final double timeEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final double minDuration,
+            final boolean forwardSearch
+    ) {
+
+        final List<String> problems = new ArrayList<>();
+        if (Double.isNaN(timeBegin)) {
+            problems.add("timeBegin is NaN");
+        }
+        if (Double.isNaN(timeEnd)) {
+            problems.add("timeEnd is NaN");
+        }
+        if ((forwardSearch && timeBegin >= timeEnd) || (!forwardSearch && timeBegin <= timeEnd)) {
+            problems.add("timeBegin (" + timeBegin + ") is " + (forwardSearch ? "not before" : "not after") + " timeEnd (" + timeEnd + ")");
+        }
+        if (!(minDuration >= 0)) {
+            problems.add("minDuration (" + minDuration + ") is not a non-negative number");
+        }
+        problems.addAll(invalidThresholdsTest(thresholdLo, thresholdHi));
 
         if (CollectionUtils.isNotEmpty(problems)) {
             throw new InvalidInputException(problems.toString());
@@ -0,0 +1,42 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+// Window found by a duration search, as inclusive sample indices and the times of those samples
+public final class SwingTimeWindow {
+
+    private final int indexBegin;
+    private final int indexEnd;
+    private final double timeBegin;
+    private final double timeEnd;
+
+    SwingTimeWindow(final int indexBegin, final int indexEnd, final double timeBegin, final double timeEnd) {
+        this.indexBegin = indexBegin;
+        this.indexEnd = indexEnd;
+        this.timeBegin = timeBegin;
+        this.timeEnd = timeEnd;
+    }
+
+    public int getIndexBegin() {
+        return this.indexBegin;
+    }
+
+    public int getIndexEnd() {
+        return this.indexEnd;
+    }
+
+    public double getTimeBegin() {
+        return this.timeBegin;
+    }
+
+    public double getTimeEnd() {
+        return this.timeEnd;
+    }
+
+    public double getDuration() {
+        return this.timeEnd - this.timeBegin;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.indexBegin + ", " + this.indexEnd + "] at [" + this.timeBegin + ", " + this.timeEnd + "]";
+    }
+}
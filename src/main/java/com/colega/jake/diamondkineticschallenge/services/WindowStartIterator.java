@@ -0,0 +1,80 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ * Window starts of a multi window search, found a chunk of the range at a time as they are pulled. Chunks start
+ * small, so taking the first few windows scans little, and double up to MAX_CHUNK_SIZE starts. Nothing is scanned
+ * once maxResults starts have been returned or the consumer stops pulling.
+ *
+ * A chunk searches the windows starting in it, reading up to winLength - 1 samples past its end, so the starts
+ * match the eager search whatever the chunk sizes.
+ */
+final class WindowStartIterator implements PrimitiveIterator.OfInt {
+
+    static final int FIRST_CHUNK_SIZE = 1 << 10;
+    static final int MAX_CHUNK_SIZE = 1 << 16;
+
+    private static final int[] NO_STARTS = new int[0];
+
+    // Window starts, in order, of every winLength run within [indexBegin, indexEnd)
+    interface ChunkSearch {
+        int[] search(int indexBegin, int indexEnd);
+    }
+
+    private final ChunkSearch chunkSearch;
+    private final int indexEnd;
+    private final int winLength;
+
+    private long nextBegin;
+    private int chunkSize;
+    private int remaining;
+
+    private int[] starts = NO_STARTS;
+    private int position;
+
+    WindowStartIterator(
+            final ChunkSearch chunkSearch,
+            final int indexBegin,
+            final int indexEnd,
+            final int winLength,
+            final int maxResults
+    ) {
+        this.chunkSearch = chunkSearch;
+        this.indexEnd = indexEnd;
+        this.winLength = winLength;
+        this.nextBegin = indexBegin;
+        this.chunkSize = Integer.max(FIRST_CHUNK_SIZE, winLength);
+        this.remaining = maxResults;
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        if (this.remaining == 0) {
+            return false;
+        }
+
+        while (this.position == this.starts.length && this.nextBegin < this.indexEnd) {
+            final int end = (int) Long.min(this.indexEnd, this.nextBegin + this.chunkSize + this.winLength - 1);
+            this.starts = this.chunkSearch.search((int) this.nextBegin, end);
+            this.position = 0;
+            this.nextBegin += this.chunkSize;
+            this.chunkSize = Integer.max(this.chunkSize, Integer.min(this.chunkSize * 2, MAX_CHUNK_SIZE));
+        }
+
+        return this.position < this.starts.length;
+    }
+
+    @Override
+    public int nextInt() {
+
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        this.remaining--;
+        return this.starts[this.position++];
+    }
+}
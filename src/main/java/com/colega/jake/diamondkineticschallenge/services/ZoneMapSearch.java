@@ -0,0 +1,294 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.CompressedColumn;
+import com.colega.jake.diamondkineticschallenge.models.DoubleArrayColumn;
+import com.colega.jake.diamondkineticschallenge.models.SwingColumn;
+import com.colega.jake.diamondkineticschallenge.models.SwingZoneMap;
+
+import java.util.Arrays;
+
+/*
+ * Searches that walk a column a block at a time using its zone map. A sample passes when
+ * value > thresholdLo && !(value >= thresholdHi), NaN leaves the range unbounded above. The block min and max
+ * decide most blocks without reading them:
+ *
+ *   no sample can pass    the run ends, the block is skipped
+ *   every sample passes   the run grows by the block length, the block is skipped
+ *   otherwise             the block's samples are scanned like a heap array
+ *
+ * Results are identical to the sample by sample kernels.
+ */
+final class ZoneMapSearch {
+
+    private static final int INITIAL_RESULT_CAPACITY = 16;
+
+    private ZoneMapSearch() {}
+
+    // Samples of one block at a time, read in place from heap arrays and decoded or copied from other storage
+    private static final class BlockReader {
+
+        private final SwingColumn column;
+        private final double[] shared;
+        private final double[] scratch;
+        private final boolean compressedBlocks;
+
+        // Sample i of the column is values[i - base]
+        private double[] values;
+        private int base;
+
+        private BlockReader(final SwingColumn column, final int blockSize) {
+            this.column = column;
+            this.shared = column instanceof DoubleArrayColumn ? ((DoubleArrayColumn) column).getSharedData() : null;
+            this.scratch = this.shared == null ? new double[blockSize] : null;
+            this.compressedBlocks = column instanceof CompressedColumn
+                    && ((CompressedColumn) column).getBlockSize() == blockSize;
+        }
+
+        private void read(final int block, final int blockBegin, final int blockLength) {
+
+            if (this.shared != null) {
+                this.values = this.shared;
+                this.base = 0;
+                return;
+            }
+
+            if (this.compressedBlocks) {
+                ((CompressedColumn) this.column).decodeBlock(block, this.scratch);
+            } else {
+                this.column.copyTo(blockBegin, this.scratch, 0, blockLength);
+            }
+            this.values = this.scratch;
+            this.base = blockBegin;
+        }
+    }
+
+    // First window within [indexBegin, indexEnd), like SearchKernels.searchAbove
+    static int searchForward(
+            final SwingZoneMap zoneMap,
+            final SwingColumn column,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final int blockSize = zoneMap.getBlockSize();
+        final BlockReader reader = new BlockReader(column, blockSize);
+
+        int currentLength = 0;
+        for (int block = indexBegin / blockSize; (long) block * blockSize < indexEnd; block++) {
+
+            final int blockBegin = block * blockSize;
+            final int blockLength = zoneMap.getBlockLength(block);
+            final int from = Integer.max(indexBegin, blockBegin);
+            final int to = Integer.min(indexEnd, blockBegin + blockLength);
+
+            if (zoneMap.nonePass(block, thresholdLo, thresholdHi)) {
+                currentLength = 0;
+                continue;
+            }
+
+            if (zoneMap.allPass(block, thresholdLo, thresholdHi)) {
+                currentLength += to - from;
+                if (currentLength >= winLength) {
+                    return to - currentLength;
+                }
+                continue;
+            }
+
+            reader.read(block, blockBegin, blockLength);
+            final double[] values = reader.values;
+            final int base = reader.base;
+            for (int i = from; i < to; i++) {
+                final double value = values[i - base];
+                if (value > thresholdLo && !(value >= thresholdHi)) {
+                    if (++currentLength == winLength) {
+                        return i - winLength + 1;
+                    }
+                } else {
+                    currentLength = 0;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    // First window walking down (indexEnd, indexBegin], reported by its top index like SearchKernels.backSearchWithinRange
+    static int searchBackward(
+            final SwingZoneMap zoneMap,
+            final SwingColumn column,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final int blockSize = zoneMap.getBlockSize();
+        final BlockReader reader = new BlockReader(column, blockSize);
+
+        int currentLength = 0;
+        for (int block = indexBegin / blockSize; block >= 0 && (long) (block + 1) * blockSize - 1 > indexEnd; block--) {
+
+            final int blockBegin = block * blockSize;
+            final int blockLength = zoneMap.getBlockLength(block);
+            final int top = Integer.min(indexBegin, blockBegin + blockLength - 1);
+            final int bottom = Integer.max(indexEnd + 1, blockBegin);
+
+            if (zoneMap.nonePass(block, thresholdLo, thresholdHi)) {
+                currentLength = 0;
+                continue;
+            }
+
+            if (zoneMap.allPass(block, thresholdLo, thresholdHi)) {
+                currentLength += top - bottom + 1;
+                if (currentLength >= winLength) {
+                    return bottom + currentLength - 1;
+                }
+                continue;
+            }
+
+            reader.read(block, blockBegin, blockLength);
+            final double[] values = reader.values;
+            final int base = reader.base;
+            for (int i = top; i >= bottom; i--) {
+                final double value = values[i - base];
+                if (value > thresholdLo && !(value >= thresholdHi)) {
+                    if (++currentLength == winLength) {
+                        return i + winLength - 1;
+                    }
+                } else {
+                    currentLength = 0;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    // Window starts, in order, of every winLength run within [indexBegin, indexEnd)
+    static int[] searchMulti(
+            final SwingZoneMap zoneMap,
+            final SwingColumn column,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        final int blockSize = zoneMap.getBlockSize();
+        final BlockReader reader = new BlockReader(column, blockSize);
+
+        int[] starts = new int[INITIAL_RESULT_CAPACITY];
+        int count = 0;
+
+        int currentLength = 0;
+        for (int block = indexBegin / blockSize; (long) block * blockSize < indexEnd; block++) {
+
+            final int blockBegin = block * blockSize;
+            final int blockLength = zoneMap.getBlockLength(block);
+            final int from = Integer.max(indexBegin, blockBegin);
+            final int to = Integer.min(indexEnd, blockBegin + blockLength);
+
+            if (zoneMap.nonePass(block, thresholdLo, thresholdHi)) {
+                currentLength = 0;
+                continue;
+            }
+
+            if (zoneMap.allPass(block, thresholdLo, thresholdHi)) {
+                // Every sample of the block completing a run of winLength adds the window ending at it
+                final int first = Integer.max(from, from + winLength - 1 - currentLength);
+                if (first < to) {
+                    if (count + to - first > starts.length) {
+                        starts = Arrays.copyOf(starts, Integer.max(count * 2, count + to - first));
+                    }
+                    for (int i = first; i < to; i++) {
+                        starts[count++] = i - winLength + 1;
+                    }
+                }
+                currentLength += to - from;
+                continue;
+            }
+
+            reader.read(block, blockBegin, blockLength);
+            final double[] values = reader.values;
+            final int base = reader.base;
+            for (int i = from; i < to; i++) {
+                final double value = values[i - base];
+                if (value > thresholdLo && !(value >= thresholdHi)) {
+                    if (++currentLength >= winLength) {
+                        if (count == starts.length) {
+                            starts = Arrays.copyOf(starts, count * 2);
+                        }
+                        starts[count++] = i - winLength + 1;
+                    }
+                } else {
+                    currentLength = 0;
+                }
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    // Both zone maps must share the block size
+    static int searchForwardTwoSignals(
+            final SwingZoneMap zoneMap1,
+            final SwingColumn column1,
+            final SwingZoneMap zoneMap2,
+            final SwingColumn column2,
+            final int indexBegin,
+            final int indexEnd,
+            final double threshold1,
+            final double threshold2,
+            final int winLength
+    ) {
+
+        final int blockSize = zoneMap1.getBlockSize();
+        final BlockReader reader1 = new BlockReader(column1, blockSize);
+        final BlockReader reader2 = new BlockReader(column2, blockSize);
+
+        int currentLength = 0;
+        for (int block = indexBegin / blockSize; (long) block * blockSize < indexEnd; block++) {
+
+            final int blockBegin = block * blockSize;
+            final int blockLength = zoneMap1.getBlockLength(block);
+            final int from = Integer.max(indexBegin, blockBegin);
+            final int to = Integer.min(indexEnd, blockBegin + blockLength);
+
+            if (zoneMap1.nonePass(block, threshold1, Double.NaN) || zoneMap2.nonePass(block, threshold2, Double.NaN)) {
+                currentLength = 0;
+                continue;
+            }
+
+            if (zoneMap1.allPass(block, threshold1, Double.NaN) && zoneMap2.allPass(block, threshold2, Double.NaN)) {
+                currentLength += to - from;
+                if (currentLength >= winLength) {
+                    return to - currentLength;
+                }
+                continue;
+            }
+
+            reader1.read(block, blockBegin, blockLength);
+            reader2.read(block, blockBegin, blockLength);
+            final double[] values1 = reader1.values;
+            final double[] values2 = reader2.values;
+            final int base1 = reader1.base;
+            final int base2 = reader2.base;
+            for (int i = from; i < to; i++) {
+                if (values1[i - base1] > threshold1 && values2[i - base2] > threshold2) {
+                    if (++currentLength == winLength) {
+                        return i - winLength + 1;
+                    }
+                } else {
+                    currentLength = 0;
+                }
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,106 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import com.colega.jake.diamondkineticschallenge.services.SwingSearchService;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwingStoreTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+
+    @Test
+    void store_manySwings_viewsMatchSources() {
+
+        // Slabs smaller than a swing make channels of one swing land in different slabs
+        final SwingStore store = new SwingStore(1 << 14);
+        final Random random = new Random(37);
+        final List<Swing> swings = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final StringBuilder csv = new StringBuilder();
+            final int rows = 1 + random.nextInt(i == 7 ? 5000 : 500);
+            for (int row = 0; row < rows; row++) {
+                csv.append(row);
+                for (int column = 1; column < 7; column++) {
+                    csv.append(',').append(random.nextGaussian());
+                }
+                csv.append('\n');
+            }
+            final Swing swing = new Swing(csv.toString());
+            swings.add(swing);
+            assertEquals(i, store.add(i % 3 == 0 ? swing.withEncoding(SwingEncoding.FLOAT32) : swing));
+        }
+
+        assertEquals(swings.size(), store.size());
+        long expectedBytes = 0;
+        for (int i = 0; i < swings.size(); i++) {
+            final Swing view = store.get(i);
+            final Swing swing = i % 3 == 0 ? swings.get(i).withEncoding(SwingEncoding.FLOAT32) : swings.get(i);
+            assertEquals(swing.getLength(), view.getLength());
+            for (final SwingChannel channel : SwingChannel.values()) {
+                assertArrayEquals(swing.getData(channel), view.getData(channel), i + " " + channel);
+            }
+            assertTrue(view.getColumn(SwingChannel.ACCELERATOR_X) instanceof DoubleBufferColumn);
+            assertSame(view, store.get(i));
+            expectedBytes += 7L * swing.getLength() * Double.BYTES;
+        }
+        assertEquals(expectedBytes, store.getUsedBytes());
+        assertTrue(store.getAllocatedBytes() >= store.getUsedBytes());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(swings.size()));
+    }
+
+    @Test
+    void store_views_searchLikeHeapSwings() {
+
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final Swing projected = new Swing(Paths.get(TEST_FILEPATH), EnumSet.of(SwingChannel.GYROSCOPE_Z));
+        final SwingStore store = new SwingStore();
+        final int id = store.add(swing);
+        final int projectedId = store.add(projected);
+
+        final SwingSearchService swingSearchService = new SwingSearchService();
+        final Swing view = store.get(id);
+        final int length = swing.getLength();
+        final Random random = new Random(41);
+        for (int i = 0; i < 100; i++) {
+            final double threshold = random.nextGaussian() * 5;
+            final int winLength = 1 + random.nextInt(20);
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValue(swing, SwingChannel.GYROSCOPE_Z, 0, length, threshold, winLength),
+                    swingSearchService.searchContinuityAboveValue(view, SwingChannel.GYROSCOPE_Z, 0, length, threshold, winLength)
+            );
+            assertArrayEquals(
+                    swingSearchService.searchMultiContinuityWithinRange(swing, SwingChannel.GYROSCOPE_Z, 0, length, threshold, threshold + 3, winLength),
+                    swingSearchService.searchMultiContinuityWithinRange(view, SwingChannel.GYROSCOPE_Z, 0, length, threshold, threshold + 3, winLength)
+            );
+        }
+
+        final Swing projectedView = store.get(projectedId);
+        assertTrue(projectedView.isLoaded(SwingChannel.GYROSCOPE_Z));
+        assertFalse(projectedView.isLoaded(SwingChannel.TIME));
+        assertArrayEquals(swing.getGyroscropeZData(), projectedView.getGyroscropeZData());
+        assertEquals(8L * length * Double.BYTES, store.getUsedBytes());
+    }
+
+    @Test
+    void store_views_keepDerivedDataOffHeap() {
+
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final SwingStore store = new SwingStore();
+        final Swing view = store.get(store.add(swing));
+
+        final SwingColumn magnitude = view.getColumn(SwingChannel.ACCELERATION_MAGNITUDE);
+        assertTrue(magnitude instanceof DoubleBufferColumn);
+        assertTrue(((DoubleBufferColumn) magnitude).getSharedBuffer().isDirect());
+        assertArrayEquals(swing.getData(SwingChannel.ACCELERATION_MAGNITUDE), view.getData(SwingChannel.ACCELERATION_MAGNITUDE));
+        assertNull(view.getZoneMap(SwingChannel.GYROSCOPE_Z));
+        assertNotNull(swing.getZoneMap(SwingChannel.GYROSCOPE_Z));
+    }
+}
@@ -0,0 +1,548 @@
+package com.colega.jake.diamondkineticschallenge.models;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.SwingDataNotFoundException;
+import com.colega.jake.diamondkineticschallenge.services.SwingSearchService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwingTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+
+    private static double[][] expectedColumns;
+
+    @BeforeAll
+    static void setup() throws IOException {
+
+        final List<String> lines = Files.readAllLines(Paths.get(TEST_FILEPATH), Charset.defaultCharset());
+
+        expectedColumns = new double[SwingChannel.rawValues().length][lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            final String[] fields = lines.get(i).split(",");
+            for (final SwingChannel channel : SwingChannel.rawValues()) {
+                expectedColumns[channel.ordinal()][i] = Double.parseDouble(fields[channel.getColumn()]);
+            }
+        }
+    }
+
+    @Test
+    void swing_fromFile_matchesParseDouble() {
+        assertColumnsEqual(new Swing(new File(TEST_FILEPATH)));
+    }
+
+    @Test
+    void swing_fromPath_matchesParseDouble() {
+        assertColumnsEqual(new Swing(Paths.get(TEST_FILEPATH)));
+    }
+
+    @Test
+    void swing_fromInputStream_matchesParseDouble() throws IOException {
+
+        final Path path = Paths.get(TEST_FILEPATH);
+
+        assertColumnsEqual(new Swing(new ByteArrayInputStream(Files.readAllBytes(path))));
+    }
+
+    @Test
+    void swing_fromString_matchesParseDouble() throws IOException {
+
+        final String string = new String(Files.readAllBytes(Paths.get(TEST_FILEPATH)), Charset.defaultCharset());
+
+        assertColumnsEqual(new Swing(string));
+    }
+
+    @Test
+    void swing_unusualNumbers_matchesParseDouble() {
+
+        final String[] fields = {
+                "0", "-0", "+1.5", " 2.25 ", "\"3.5\"", "1e3", "-4.2E-7", ".5",
+                "12345678901234567890.5", "0.1000000000000000055511151231257827", "1e-320", "NaN", "-Infinity", "7d"
+        };
+
+        final StringBuilder csv = new StringBuilder();
+        for (final String field : fields) {
+            csv.append("0,").append(field).append(",0,0,0,0,0\r\n\n");
+        }
+
+        final double[] result = new Swing(csv.toString()).getAcceleratorXData();
+
+        assertEquals(fields.length, result.length);
+        for (int i = 0; i < fields.length; i++) {
+            assertEquals(
+                    Double.doubleToRawLongBits(Double.parseDouble(fields[i].replace("\"", ""))),
+                    Double.doubleToRawLongBits(result[i]),
+                    fields[i]
+            );
+        }
+    }
+
+    @Test
+    void swing_missingFields_exceptionThrown() {
+        assertThrows(SwingDataNotFoundException.class, () -> new Swing("0,1,2,3,4,5,6\n0,1,2\n"));
+    }
+
+    @Test
+    void swing_invalidNumber_exceptionThrown() {
+        assertThrows(NumberFormatException.class, () -> new Swing("0,1,2,3,4,x,6\n"));
+    }
+
+    @Test
+    void swing_binaryRoundTrip_matchesParseDouble(@TempDir final Path tempDir) {
+
+        final Path binaryPath = tempDir.resolve("test_swing.bin");
+        new Swing(new File(TEST_FILEPATH)).writeBinary(binaryPath);
+
+        final Swing mappedSwing = Swing.mapBinary(binaryPath);
+
+        assertColumnsEqual(mappedSwing);
+        assertTrue(mappedSwing.getColumn(SwingChannel.ACCELERATOR_X) instanceof DoubleBufferColumn);
+        assertThrows(UnsupportedOperationException.class, () -> mappedSwing.getSharedData(SwingChannel.ACCELERATOR_X));
+    }
+
+    @Test
+    void swing_binaryFromCsvFile_exceptionThrown() {
+        assertThrows(SwingDataNotFoundException.class, () -> Swing.mapBinary(Paths.get(TEST_FILEPATH)));
+    }
+
+    @Test
+    void swing_binaryCorruptHeader_exceptionThrown(@TempDir final Path tempDir) throws IOException {
+
+        final Path binaryPath = tempDir.resolve("test_swing.bin");
+        new Swing(new File(TEST_FILEPATH)).writeBinary(binaryPath);
+        final byte[] bytes = Files.readAllBytes(binaryPath);
+
+        // Channel count at byte 8, channel entries of 16 bytes from byte 24 starting with their column
+        for (final int channelCount : new int[]{-1, SwingChannel.rawValues().length + 1, Integer.MAX_VALUE}) {
+            final ByteBuffer corrupt = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            corrupt.putInt(8, channelCount);
+            Files.write(binaryPath, corrupt.array());
+            final SwingDataNotFoundException exception = assertThrows(
+                    SwingDataNotFoundException.class, () -> Swing.mapBinary(binaryPath)
+            );
+            assertTrue(exception.getCause().getMessage().startsWith("Unsupported channel count"), "" + channelCount);
+        }
+
+        final ByteBuffer duplicate = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        duplicate.putInt(24 + 16, duplicate.getInt(24));
+        Files.write(binaryPath, duplicate.array());
+        final SwingDataNotFoundException exception = assertThrows(
+                SwingDataNotFoundException.class, () -> Swing.mapBinary(binaryPath)
+        );
+        assertTrue(exception.getCause().getMessage().startsWith("Duplicate entry"));
+    }
+
+    @Test
+    void swing_archiveRoundTrip_matchesParseDouble(@TempDir final Path tempDir) throws IOException {
+
+        final Path archivePath = tempDir.resolve("test_swing.dksa");
+        new Swing(new File(TEST_FILEPATH)).writeArchive(archivePath);
+
+        final Swing archivedSwing = Swing.mapArchive(archivePath);
+
+        assertColumnsEqual(archivedSwing);
+        assertTrue(archivedSwing.getColumn(SwingChannel.TIME) instanceof CompressedColumn);
+        assertEquals(
+                Double.doubleToRawLongBits(expectedColumns[SwingChannel.GYROSCOPE_Y.ordinal()][1100]),
+                Double.doubleToRawLongBits(archivedSwing.getColumn(SwingChannel.GYROSCOPE_Y).get(1100))
+        );
+        assertTrue(Files.size(archivePath) * 3 < Files.size(Paths.get(TEST_FILEPATH)));
+    }
+
+    @Test
+    void swing_archiveUnusualNumbers_bitExact(@TempDir final Path tempDir) {
+
+        // NaN, signed zeros and values without a short decimal form force the XOR encoding
+        final String[] fields = {"0", "-0", "NaN", "1e-320", "-Infinity", "0.1000000000000000055511151231257827", "3.25"};
+        final Random random = new Random(17);
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            final String field = i < 1024 ? fields[random.nextInt(fields.length)] : Double.toString(random.nextGaussian());
+            csv.append(i * 1000L).append(',').append(field).append(",0,0,0,0,0\n");
+        }
+        final Swing swing = new Swing(csv.toString());
+
+        final Path archivePath = tempDir.resolve("unusual.dksa");
+        swing.writeArchive(archivePath);
+        final double[] expected = swing.getAcceleratorXData();
+        final double[] actual = Swing.mapArchive(archivePath).getAcceleratorXData();
+
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]), "sample " + i);
+        }
+    }
+
+    @Test
+    void swing_archiveExactDecimals_smallestEncodingChosen(@TempDir final Path tempDir) throws IOException {
+
+        // Alternating 0 and 1e15 are whole numbers, but their deltas need 51 bits where XOR keeps the same few bits
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2048; i++) {
+            csv.append(i * 1000L).append(',').append(i % 2 == 0 ? "0" : "1000000000000000").append(",0,0,0,0,0\n");
+        }
+        final Swing swing = new Swing(csv.toString());
+        final Path archivePath = tempDir.resolve("alternating.dksa");
+        swing.writeArchive(archivePath);
+
+        // Channel entries of 16 bytes from byte 32, block table entries of 32 bytes with the flags at byte 12
+        final ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(archivePath)).order(ByteOrder.LITTLE_ENDIAN);
+        final int[] encodings = new int[SwingChannel.rawValues().length];
+        for (int c = 0; c < file.getInt(8); c++) {
+            final long tableOffset = file.getLong(32 + 16 * c + 8);
+            encodings[file.getInt(32 + 16 * c)] = file.getInt((int) tableOffset + 12) & 0xFF;
+        }
+
+        assertEquals(SwingArchiveFormat.ENCODING_XOR, encodings[SwingChannel.ACCELERATOR_X.getColumn()]);
+        assertEquals(SwingArchiveFormat.ENCODING_DELTA_OF_DELTA, encodings[SwingChannel.TIME.getColumn()]);
+        assertArrayEquals(swing.getAcceleratorXData(), Swing.mapArchive(archivePath).getAcceleratorXData());
+    }
+
+    @Test
+    void swing_archiveCorruptHeader_exceptionThrown(@TempDir final Path tempDir) throws IOException {
+
+        final Path archivePath = tempDir.resolve("test_swing.dksa");
+        new Swing(new File(TEST_FILEPATH)).writeArchive(archivePath);
+        final byte[] bytes = Files.readAllBytes(archivePath);
+
+        // Channel count at byte 8, channel entries of 16 bytes from byte 32 starting with their column
+        for (final int channelCount : new int[]{-1, SwingChannel.rawValues().length + 1, Integer.MAX_VALUE}) {
+            final ByteBuffer corrupt = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            corrupt.putInt(8, channelCount);
+            Files.write(archivePath, corrupt.array());
+            final SwingDataNotFoundException exception = assertThrows(
+                    SwingDataNotFoundException.class, () -> Swing.mapArchive(archivePath)
+            );
+            assertTrue(exception.getCause().getMessage().startsWith("Unsupported channel count"), "" + channelCount);
+        }
+
+        final ByteBuffer duplicate = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        duplicate.putInt(32 + 16, duplicate.getInt(32));
+        Files.write(archivePath, duplicate.array());
+        final SwingDataNotFoundException exception = assertThrows(
+                SwingDataNotFoundException.class, () -> Swing.mapArchive(archivePath)
+        );
+        assertTrue(exception.getCause().getMessage().startsWith("Duplicate entry"));
+    }
+
+    @Test
+    void swing_archiveFromCsvFile_exceptionThrown() {
+        assertThrows(SwingDataNotFoundException.class, () -> Swing.mapArchive(Paths.get(TEST_FILEPATH)));
+        assertThrows(IllegalArgumentException.class, () -> new Swing(new File(TEST_FILEPATH)).withEncoding(SwingEncoding.COMPRESSED));
+    }
+
+    @Test
+    void swing_zoneMaps_summarizeBlocks() {
+
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final SwingZoneMap zoneMap = swing.getZoneMap(SwingChannel.GYROSCOPE_X);
+        final double[] data = expectedColumns[SwingChannel.GYROSCOPE_X.ordinal()];
+
+        assertEquals((data.length + zoneMap.getBlockSize() - 1) / zoneMap.getBlockSize(), zoneMap.getBlockCount());
+        for (int block = 0; block < zoneMap.getBlockCount(); block++) {
+            final int blockBegin = block * zoneMap.getBlockSize();
+            final double[] blockData = Arrays.copyOfRange(data, blockBegin, blockBegin + zoneMap.getBlockLength(block));
+            assertEquals(Arrays.stream(blockData).min().getAsDouble(), zoneMap.getBlockMin(block));
+            assertEquals(Arrays.stream(blockData).max().getAsDouble(), zoneMap.getBlockMax(block));
+            assertFalse(zoneMap.hasNaN(block));
+        }
+
+        assertNull(swing.withEncoding(SwingEncoding.FLOAT32).getZoneMap(SwingChannel.GYROSCOPE_X));
+        assertNotNull(swing.getColumn(SwingChannel.ACCELERATION_MAGNITUDE));
+        assertNotNull(swing.getZoneMap(SwingChannel.ACCELERATION_MAGNITUDE));
+    }
+
+    @Test
+    void swing_zoneMaps_blocksReadOnFirstSearch() {
+
+        final AtomicLong reads = new AtomicLong();
+        final SwingColumn column = new SwingColumn() {
+            @Override
+            public int size() {
+                return 1 << 20;
+            }
+
+            @Override
+            public double get(final int index) {
+                reads.incrementAndGet();
+                return index % 100;
+            }
+
+            @Override
+            public SwingEncoding getEncoding() {
+                return SwingEncoding.FLOAT64;
+            }
+
+            @Override
+            public DoubleBuffer getView() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void copyTo(final int index, final double[] destination, final int offset, final int length) {
+                for (int i = 0; i < length; i++) {
+                    destination[offset + i] = this.get(index + i);
+                }
+            }
+        };
+        final SwingColumn[] columns = new SwingColumn[SwingChannel.values().length];
+        columns[SwingChannel.ACCELERATOR_X.ordinal()] = column;
+        final Swing swing = new Swing(columns);
+
+        final SwingZoneMap zoneMap = swing.getZoneMap(SwingChannel.ACCELERATOR_X);
+        assertEquals(0, reads.get());
+
+        // A short search reads the blocks it covers, not the whole column
+        final int begin = 5 * zoneMap.getBlockSize() + 10;
+        assertEquals(
+                begin,
+                new SwingSearchService().searchContinuityAboveValue(swing, SwingChannel.ACCELERATOR_X, begin, begin + 20, 40, 10)
+        );
+        assertTrue(reads.get() <= 2L * zoneMap.getBlockSize(), "" + reads.get());
+
+        // A summarized block is not read again
+        reads.set(0);
+        assertEquals(0, zoneMap.getBlockMin(5));
+        assertEquals(99, zoneMap.getBlockMax(5));
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    void swing_indexOfTime_matchesLinearScan() {
+
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final double[] time = expectedColumns[SwingChannel.TIME.ordinal()];
+        final Random random = new Random(31);
+
+        for (int i = 0; i < 500; i++) {
+
+            final double query = random.nextBoolean() ? time[random.nextInt(time.length)] : (random.nextDouble() * 1.1 - 0.05) * time[time.length - 1];
+
+            int expected = 0;
+            while (expected < time.length && time[expected] < query) {
+                expected++;
+            }
+
+            assertEquals(expected, swing.indexOfTime(query), "time " + query);
+        }
+
+        assertEquals(time[700], swing.getTime(700));
+    }
+
+    @Test
+    void swing_projection_loadsSelectedChannelsOnly(@TempDir final Path tempDir) {
+
+        final Set<SwingChannel> projection = EnumSet.of(SwingChannel.ACCELERATOR_X, SwingChannel.GYROSCOPE_Z);
+        final Swing fullSwing = new Swing(new File(TEST_FILEPATH));
+        final Path binaryPath = tempDir.resolve("test_swing.bin");
+        final Path archivePath = tempDir.resolve("test_swing.dksa");
+        fullSwing.writeBinary(binaryPath);
+        fullSwing.writeArchive(archivePath);
+
+        for (final Swing swing : new Swing[]{
+                new Swing(Paths.get(TEST_FILEPATH), projection),
+                Swing.mapBinary(binaryPath, projection),
+                Swing.mapArchive(archivePath, projection)
+        }) {
+            assertEquals(expectedColumns[0].length, swing.getLength());
+            for (final SwingChannel channel : SwingChannel.rawValues()) {
+                assertEquals(projection.contains(channel), swing.isLoaded(channel), channel.name());
+                if (projection.contains(channel)) {
+                    assertArrayEquals(expectedColumns[channel.ordinal()], swing.getData(channel), channel.name());
+                } else {
+                    assertThrows(IllegalArgumentException.class, () -> swing.getData(channel), channel.name());
+                }
+            }
+        }
+
+        // Projected swings write only what they hold, derived channels bring their sources along
+        final Path projectedPath = tempDir.resolve("projected.bin");
+        new Swing(Paths.get(TEST_FILEPATH), projection).writeBinary(projectedPath);
+        assertArrayEquals(
+                expectedColumns[SwingChannel.GYROSCOPE_Z.ordinal()],
+                Swing.mapBinary(projectedPath, EnumSet.of(SwingChannel.GYROSCOPE_Z)).getGyroscropeZData()
+        );
+        assertThrows(SwingDataNotFoundException.class, () -> Swing.mapBinary(projectedPath));
+
+        final Swing derivedSwing = new Swing(Paths.get(TEST_FILEPATH), EnumSet.of(SwingChannel.ACCELERATION_MAGNITUDE));
+        assertArrayEquals(fullSwing.getData(SwingChannel.ACCELERATION_MAGNITUDE), derivedSwing.getData(SwingChannel.ACCELERATION_MAGNITUDE));
+        assertFalse(derivedSwing.isLoaded(SwingChannel.TIME));
+    }
+
+    @Test
+    void swing_projection_unselectedFieldsNotParsed() {
+
+        final Swing swing = new Swing(
+                new ByteArrayInputStream("0,1.5,x,y,z,w,v\n1,2.5,x,y,z,w,v\n".getBytes(Charset.defaultCharset())),
+                EnumSet.of(SwingChannel.TIME, SwingChannel.ACCELERATOR_X)
+        );
+
+        assertArrayEquals(new double[]{1.5, 2.5}, swing.getAcceleratorXData());
+        assertThrows(IllegalArgumentException.class, () -> new Swing(new File(TEST_FILEPATH), EnumSet.noneOf(SwingChannel.class)));
+
+        final Swing fromString = new Swing("0,1.5,x,y,z,w,v\n1,2.5,x,y,z,w,v\n", EnumSet.of(SwingChannel.ACCELERATOR_X));
+        assertArrayEquals(new double[]{1.5, 2.5}, fromString.getAcceleratorXData());
+        assertThrows(IllegalArgumentException.class, () -> fromString.getData(SwingChannel.GYROSCOPE_Z));
+    }
+
+    @Test
+    void swing_withEncoding_valuesRounded() {
+
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final Swing floatSwing = swing.withEncoding(SwingEncoding.FLOAT32);
+        final Swing shortSwing = swing.withEncoding(SwingEncoding.INT16);
+
+        for (final SwingChannel channel : SwingChannel.rawValues()) {
+
+            assertTrue(floatSwing.getColumn(channel) instanceof FloatArrayColumn);
+            assertTrue(shortSwing.getColumn(channel) instanceof ShortArrayColumn);
+
+            final double scale = ((ShortArrayColumn) shortSwing.getColumn(channel)).getScale();
+            final double[] expected = expectedColumns[channel.ordinal()];
+            final double[] floats = floatSwing.getData(channel);
+            final double[] shorts = shortSwing.getData(channel);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals((float) expected[i], floats[i], channel.name());
+                assertEquals(expected[i], shorts[i], scale / 2 + Math.ulp(expected[i]), channel.name());
+            }
+        }
+
+        final Swing mixedSwing = swing.withEncoding(SwingChannel.GYROSCOPE_X, SwingEncoding.INT16);
+        assertSame(swing.getColumn(SwingChannel.TIME), mixedSwing.getColumn(SwingChannel.TIME));
+        assertEquals(SwingEncoding.INT16, mixedSwing.getColumn(SwingChannel.GYROSCOPE_X).getEncoding());
+        assertArrayEquals(
+                shortSwing.getData(SwingChannel.TIME),
+                shortSwing.withEncoding(SwingEncoding.FLOAT64).getSharedData(SwingChannel.TIME)
+        );
+    }
+
+    @Test
+    void columnBounds_randomThresholds_matchDecodedComparisons() {
+
+        final Random random = new Random(3);
+        final short[] raws = new short[1 << 16];
+        for (int i = 0; i < raws.length; i++) {
+            raws[i] = (short) (i + Short.MIN_VALUE);
+        }
+        final ShortArrayColumn shorts = new ShortArrayColumn(raws, 0.001 + random.nextDouble());
+
+        for (int i = 0; i < 200; i++) {
+
+            final double threshold = i % 50 == 0
+                    ? new double[]{Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 1e300}[i / 50]
+                    : random.nextGaussian() * 20000 * shorts.getScale();
+
+            final int lowerBound = shorts.lowerBound(threshold);
+            final int upperBound = shorts.upperBound(threshold);
+            for (int j = 0; j < raws.length; j++) {
+                final double value = shorts.get(j);
+                assertEquals(value > threshold, raws[j] > lowerBound, threshold + " " + raws[j]);
+                // The NaN sentinel may pass an upper bound, it never passes the lower bound every search also tests
+                if (raws[j] != ShortArrayColumn.NAN_RAW) {
+                    assertEquals(value < threshold, raws[j] < upperBound, threshold + " " + raws[j]);
+                }
+            }
+
+            final float floatLowerBound = FloatArrayColumn.lowerBound(threshold);
+            final float floatUpperBound = FloatArrayColumn.upperBound(threshold);
+            for (int j = 0; j < 1000; j++) {
+                final float value = j < 3
+                        ? new float[]{Float.NaN, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY}[j]
+                        : (float) threshold + (float) random.nextGaussian() * Math.ulp((float) threshold) * 4;
+                assertEquals((double) value > threshold, value > floatLowerBound, threshold + " " + value);
+                assertEquals((double) value < threshold, value < floatUpperBound, threshold + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void shortArrayColumn_infiniteSample_exceptionThrown() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ShortArrayColumn.encode(new DoubleArrayColumn(new double[]{1, Double.POSITIVE_INFINITY}))
+        );
+    }
+
+    @Test
+    void shortArrayColumn_outOfRangeSamples_neverClamped() {
+
+        // Scaled to the largest magnitude, the extremes land on the raw bounds instead of being clipped
+        final Swing swing = new Swing(new ByteArrayInputStream(
+                "0,1e300,0,0,0,0,0\n1,-1e300,0,0,0,0,0\n2,1e-300,0,0,0,0,0\n".getBytes(Charset.defaultCharset())
+        )).withEncoding(SwingChannel.ACCELERATOR_X, SwingEncoding.INT16);
+        final ShortArrayColumn shorts = (ShortArrayColumn) swing.getColumn(SwingChannel.ACCELERATOR_X);
+        assertEquals(ShortArrayColumn.MAX_RAW, shorts.getSharedData()[0]);
+        assertEquals(ShortArrayColumn.MIN_RAW, shorts.getSharedData()[1]);
+        assertEquals(1e300, swing.getAcceleratorXData()[0], shorts.getScale() / 2);
+
+        // A fixed scale too small for a sample is rejected, not clamped
+        final DoubleArrayColumn column = new DoubleArrayColumn(new double[]{1, 32767});
+        assertEquals(32767, ShortArrayColumn.encode(column, 1).get(1));
+        assertThrows(IllegalArgumentException.class, () -> ShortArrayColumn.encode(column, 0.5));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ShortArrayColumn.encode(new DoubleArrayColumn(new double[]{-32768}), 1)
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ShortArrayColumn.encode(new DoubleArrayColumn(new double[]{Double.NEGATIVE_INFINITY}), 1)
+        );
+    }
+
+    @Test
+    void swing_derivedChannels_computedOnceFromSources(@TempDir final Path tempDir) {
+
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final Path binaryPath = tempDir.resolve("test_swing.bin");
+        swing.writeBinary(binaryPath);
+        final Swing mappedSwing = Swing.mapBinary(binaryPath);
+
+        for (final SwingChannel channel : new SwingChannel[]{SwingChannel.ACCELERATION_MAGNITUDE, SwingChannel.ANGULAR_VELOCITY_MAGNITUDE}) {
+
+            final SwingChannel[] sources = channel.getSources();
+            final double[] expected = new double[swing.getLength()];
+            for (int i = 0; i < expected.length; i++) {
+                final double x = expectedColumns[sources[0].ordinal()][i];
+                final double y = expectedColumns[sources[1].ordinal()][i];
+                final double z = expectedColumns[sources[2].ordinal()][i];
+                expected[i] = Math.sqrt(x * x + y * y + z * z);
+            }
+
+            assertTrue(channel.isDerived());
+            assertArrayEquals(expected, swing.getData(channel), channel.name());
+            assertArrayEquals(expected, mappedSwing.getData(channel), channel.name());
+            assertSame(swing.getColumn(channel), swing.getColumn(channel));
+        }
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> swing.withEncoding(SwingChannel.ACCELERATION_MAGNITUDE, SwingEncoding.FLOAT32)
+        );
+    }
+
+    private static void assertColumnsEqual(final Swing swing) {
+
+        assertEquals(expectedColumns[0].length, swing.getLength());
+        for (final SwingChannel channel : SwingChannel.rawValues()) {
+            assertArrayEquals(expectedColumns[channel.ordinal()], swing.getData(channel), channel.name());
+        }
+    }
+}
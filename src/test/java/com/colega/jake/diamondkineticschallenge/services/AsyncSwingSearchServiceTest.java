@@ -0,0 +1,197 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSwingSearchServiceTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+    private static Swing testSwing;
+    private static SwingSearchService swingSearchService;
+
+    @BeforeAll
+    static void setup() {
+        testSwing = new Swing(new File(TEST_FILEPATH));
+        swingSearchService = new SwingSearchService();
+    }
+
+    @Test
+    void searches_smallChunks_matchSynchronous() throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Chunks shorter than most windows make runs cross chunk boundaries
+            final AsyncSwingSearchService asyncService = new AsyncSwingSearchService(swingSearchService, executor, 7);
+            final int length = testSwing.getLength();
+            final Random random = new Random(43);
+
+            for (int i = 0; i < 200; i++) {
+                final double threshold = random.nextGaussian() * 2;
+                final int winLength = 1 + random.nextInt(30);
+                final int begin = random.nextInt(length / 2);
+                final int end = begin + 1 + random.nextInt(length - begin);
+
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValue(testSwing, SwingChannel.GYROSCOPE_Z, begin, end, threshold, winLength),
+                        asyncService.searchContinuityAboveValue(testSwing, SwingChannel.GYROSCOPE_Z, begin, end, threshold, winLength, TIMEOUT).get()
+                );
+                assertEquals(
+                        swingSearchService.backSearchContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, end - 1, begin - 1, threshold, threshold + 2, winLength),
+                        asyncService.backSearchContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, end - 1, begin - 1, threshold, threshold + 2, winLength, TIMEOUT).get()
+                );
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValueTwoSignals(testSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, begin, end, threshold, -threshold, winLength),
+                        asyncService.searchContinuityAboveValueTwoSignals(testSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, begin, end, threshold, -threshold, winLength, TIMEOUT).get()
+                );
+
+                final SwingQueryResult multi = asyncService.searchMultiContinuityWithinRange(
+                        testSwing, SwingChannel.GYROSCOPE_Z, begin, end, threshold, threshold + 2, winLength, TIMEOUT
+                ).get();
+                assertTrue(multi.isComplete());
+                assertArrayEquals(
+                        swingSearchService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, begin, end, threshold, threshold + 2, winLength),
+                        multi.getWindows()
+                );
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void searches_pastDeadline_timeoutOrPartialResult() throws Exception {
+
+        final AsyncSwingSearchService asyncService = new AsyncSwingSearchService(swingSearchService, Runnable::run);
+        final int length = testSwing.getLength();
+
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> asyncService.searchContinuityAboveValue(
+                testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1, 5, Duration.ZERO
+        ).get());
+        assertTrue(exception.getCause() instanceof TimeoutException);
+
+        final SwingQueryResult partial = asyncService.searchMultiContinuityWithinRange(
+                testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10, Duration.ZERO
+        ).get();
+        assertFalse(partial.isComplete());
+        assertEquals(0, partial.getWindows().length);
+        assertEquals(-1, partial.getIndex());
+
+        // Without a deadline the search runs to the end
+        assertTrue(asyncService.searchMultiContinuityWithinRange(
+                testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10, null
+        ).get().isComplete());
+    }
+
+    @Test
+    void searches_cancelledWhileQueued_neverRun() {
+
+        final List<Runnable> queued = new ArrayList<>();
+        final AsyncSwingSearchService asyncService = new AsyncSwingSearchService(swingSearchService, queued::add);
+
+        final CompletableFuture<SwingQueryResult> future = asyncService.searchMultiContinuityWithinRange(
+                testSwing, SwingChannel.GYROSCOPE_Z, 0, testSwing.getLength(), -1, 1, 10, TIMEOUT
+        );
+        assertFalse(future.isDone());
+        assertTrue(future.cancel(true));
+
+        queued.forEach(Runnable::run);
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void singleWindowSearches_cancelledWhileRunning_noFurtherChunks() {
+
+        final AtomicReference<CompletableFuture<Integer>> running = new AtomicReference<>();
+        final AtomicInteger chunks = new AtomicInteger();
+        final SwingSearchService countingService = new SwingSearchService() {
+            @Override
+            SwingQueryResult execute(final Swing swing, final SwingQuery query) {
+                if (chunks.incrementAndGet() == 2) {
+                    running.get().cancel(true);
+                }
+                return super.execute(swing, query);
+            }
+        };
+
+        final List<Runnable> queued = new ArrayList<>();
+        final AsyncSwingSearchService asyncService = new AsyncSwingSearchService(countingService, queued::add, 7);
+        final int length = testSwing.getLength();
+
+        // No window is found, so without the cancel every chunk of the range would run
+        final List<CompletableFuture<Integer>> futures = Arrays.asList(
+                asyncService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1e9, 5, null),
+                asyncService.backSearchContinuityWithinRange(testSwing, SwingChannel.ACCELERATOR_X, length - 1, -1, 1e8, 1e9, 5, null),
+                asyncService.searchContinuityAboveValueTwoSignals(
+                        testSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, 0, length, 1e9, 1e9, 5, null
+                )
+        );
+        for (int i = 0; i < futures.size(); i++) {
+            chunks.set(0);
+            running.set(futures.get(i));
+            queued.get(i).run();
+            assertEquals(2, chunks.get());
+            assertTrue(futures.get(i).isCancelled());
+        }
+    }
+
+    @Test
+    void searches_invalidInput_completedExceptionally() {
+
+        final AsyncSwingSearchService asyncService = new AsyncSwingSearchService(swingSearchService, Runnable::run);
+
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> asyncService.searchContinuityAboveValue(
+                testSwing, SwingChannel.ACCELERATOR_X, 10, 5, 1, 0, TIMEOUT
+        ).get());
+        assertTrue(exception.getCause() instanceof InvalidInputException);
+        assertThrows(IllegalArgumentException.class, () -> new AsyncSwingSearchService(swingSearchService, Runnable::run, 0));
+    }
+
+    @Test
+    void searches_errorInChunk_completedExceptionally() throws Exception {
+
+        final SwingSearchService failingService = new SwingSearchService() {
+            @Override
+            SwingQueryResult execute(final Swing swing, final SwingQuery query) {
+                throw new StackOverflowError();
+            }
+        };
+        // The worker rethrows the error after completing the future, keep it out of the test output
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler((t, e) -> { });
+            return thread;
+        });
+        try {
+            final AsyncSwingSearchService asyncService = new AsyncSwingSearchService(failingService, executor);
+
+            final ExecutionException exception = assertThrows(ExecutionException.class, () -> asyncService.searchContinuityAboveValue(
+                    testSwing, SwingChannel.ACCELERATOR_X, 0, testSwing.getLength(), 1, 5, null
+            ).get(1, TimeUnit.MINUTES));
+            assertTrue(exception.getCause() instanceof StackOverflowError);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
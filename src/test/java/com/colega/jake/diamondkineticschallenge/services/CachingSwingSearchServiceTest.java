@@ -0,0 +1,166 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingSwingSearchServiceTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+
+    private static Swing testSwing;
+    private static SwingSearchService swingSearchService;
+
+    @BeforeAll
+    static void setup() {
+        testSwing = new Swing(new File(TEST_FILEPATH));
+        swingSearchService = new SwingSearchService();
+    }
+
+    @Test
+    void searches_repeated_servedFromCache() {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(100, 1 << 20);
+        final int length = testSwing.getLength();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1, 5),
+                    cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1, 5)
+            );
+            assertEquals(1264, cachingService.backSearchContinuityWithinRange(
+                    testSwing, SwingChannel.ACCELERATOR_X, length - 1, -1, 0, 999, 1
+            ));
+            assertEquals(42, cachingService.searchContinuityAboveValueTwoSignals(
+                    testSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, 0, length - 1, 1.1, 1.1, 1
+            ));
+            assertArrayEquals(
+                    swingSearchService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10),
+                    cachingService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10)
+            );
+        }
+
+        assertEquals(4, cachingService.getMissCount());
+        assertEquals(8, cachingService.getHitCount());
+        assertEquals(4, cachingService.getEntryCount());
+        assertEquals(0, cachingService.getEvictionCount());
+    }
+
+    @Test
+    void searchMultiContinuityWithinRange_windowsModified_cacheUnchanged() {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(100, 1 << 20);
+        final int length = testSwing.getLength();
+
+        final int[][] first = cachingService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10);
+        final int expected = first[0][0];
+        first[0][0] = -5;
+
+        assertEquals(
+                expected,
+                cachingService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10)[0][0]
+        );
+    }
+
+    @Test
+    void searches_overEntryBound_leastRecentlyUsedEvicted() {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(2, 1 << 20);
+        final int length = testSwing.getLength();
+
+        cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 0, 1);
+        cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1, 1);
+        cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 0, 1);
+        cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 2, 1);
+
+        assertEquals(1, cachingService.getEvictionCount());
+        assertEquals(2, cachingService.getEntryCount());
+
+        // Threshold 0 was used more recently than threshold 1, so it survived
+        cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 0, 1);
+        assertEquals(2, cachingService.getHitCount());
+    }
+
+    @Test
+    void searches_overByteBound_evictedAndBounded() {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(100, 100_000);
+        final int length = testSwing.getLength();
+
+        for (int winLength = 1; winLength <= 20; winLength++) {
+            cachingService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, winLength);
+            assertTrue(cachingService.getEstimatedBytes() <= 100_000);
+        }
+
+        assertTrue(cachingService.getEvictionCount() > 0);
+    }
+
+    @Test
+    void searches_concurrentReaders_matchUncached() {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(8, 1 << 20);
+        final int length = testSwing.getLength();
+
+        IntStream.range(0, 2000).parallel().forEach(i -> {
+            final double threshold = (i % 16) / 8.0 - 1;
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_Y, 0, length, threshold, 3),
+                    cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_Y, 0, length, threshold, 3)
+            );
+        });
+
+        assertEquals(2000, cachingService.getHitCount() + cachingService.getMissCount());
+        assertTrue(cachingService.getEntryCount() <= 8);
+    }
+
+    @Test
+    void searches_invalidInput_exceptionThrownAndNotCached() {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(100, 1 << 20);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(InvalidInputException.class, () -> cachingService.searchContinuityAboveValue(
+                    testSwing, SwingChannel.ACCELERATOR_X, 10, 5, 1, 5
+            ));
+        }
+        assertEquals(0, cachingService.getEntryCount());
+    }
+
+    @Test
+    void searches_swingCollected_entriesDropped() throws InterruptedException {
+
+        final CachingSwingSearchService cachingService = new CachingSwingSearchService(100, 1 << 20);
+        final int length = testSwing.getLength();
+
+        Swing swing = new Swing(new File(TEST_FILEPATH));
+        final WeakReference<Swing> collected = new WeakReference<>(swing);
+        cachingService.searchContinuityAboveValue(swing, SwingChannel.ACCELERATOR_X, 0, length, 1, 5);
+        cachingService.searchContinuityAboveValue(swing, SwingChannel.ACCELERATOR_X, 0, length, 1, 5);
+        assertEquals(1, cachingService.getHitCount());
+
+        // The cache must not keep the swing alive
+        swing = null;
+        for (int i = 0; i < 50 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(collected.get());
+
+        // Entries of collected swings are dropped by the next write after their keys are enqueued, which may lag
+        int writes = 0;
+        do {
+            Thread.sleep(writes == 0 ? 0 : 10);
+            cachingService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1 + writes++, 5);
+        } while (writes < 50 && cachingService.getEntryCount() > writes);
+        assertEquals(writes, cachingService.getEntryCount());
+        assertEquals(0, cachingService.getEvictionCount());
+    }
+}
@@ -0,0 +1,130 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContinuityDetectorTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+
+    private static Swing testSwing;
+    private static SwingSearchService swingSearchService;
+
+    @BeforeAll
+    static void setup() {
+        testSwing = new Swing(new File(TEST_FILEPATH));
+        swingSearchService = new SwingSearchService();
+    }
+
+    @Test
+    void continuityAboveValue_samplesOneAtATime_matchesSearch() {
+
+        final double[] testData = testSwing.getAcceleratorXData();
+        final List<long[]> windows = new ArrayList<>();
+        final ContinuityDetector detector = ContinuityDetector.continuityAboveValue(
+                1, 5, (indexBegin, indexEnd) -> windows.add(new long[]{indexBegin, indexEnd})
+        );
+
+        for (final double value : testData) {
+            detector.accept(value);
+        }
+
+        final int expected = swingSearchService.searchContinuityAboveValue(testData, 0, testData.length, 1, 5);
+        assertEquals(1, windows.size());
+        assertArrayEquals(new long[]{expected, expected + 4}, windows.get(0));
+        assertTrue(detector.isDone());
+        assertEquals(testData.length, detector.getSampleCount());
+    }
+
+    @Test
+    void continuityAboveValueTwoSignals_batches_matchesSearch() {
+
+        final double[] testData1 = testSwing.getAcceleratorXData();
+        final double[] testData2 = testSwing.getAcceleratorYData();
+        final List<long[]> windows = new ArrayList<>();
+        final ContinuityDetector detector = ContinuityDetector.continuityAboveValueTwoSignals(
+                0.5, -0.5, 3, (indexBegin, indexEnd) -> windows.add(new long[]{indexBegin, indexEnd})
+        );
+
+        for (int offset = 0; offset < testData1.length; offset += 7) {
+            detector.accept(testData1, testData2, offset, Integer.min(7, testData1.length - offset));
+        }
+
+        final int expected = swingSearchService.searchContinuityAboveValueTwoSignals(
+                testData1, testData2, 0, testData1.length, 0.5, -0.5, 3
+        );
+        assertEquals(1, windows.size());
+        assertEquals(expected, windows.get(0)[0]);
+    }
+
+    @Test
+    void multiContinuityWithinRange_batches_matchesSearch() {
+
+        final double[] testData = testSwing.getGyroscropeZData();
+        final List<long[]> windows = new ArrayList<>();
+        final ContinuityDetector detector = ContinuityDetector.multiContinuityWithinRange(
+                -1, 1, 10, (indexBegin, indexEnd) -> windows.add(new long[]{indexBegin, indexEnd})
+        );
+
+        for (int offset = 0; offset < testData.length; offset += 100) {
+            detector.accept(testData, offset, Integer.min(100, testData.length - offset));
+        }
+
+        final int[][] expected = swingSearchService.searchMultiContinuityWithinRange(
+                testData, 0, testData.length, -1, 1, 10
+        );
+        assertEquals(expected.length, windows.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(new long[]{expected[i][0], expected[i][1]}, windows.get(i));
+        }
+        assertFalse(detector.isDone());
+    }
+
+    @Test
+    void continuityWithinRange_reset_indicesRestart() {
+
+        final List<long[]> windows = new ArrayList<>();
+        final ContinuityDetector detector = ContinuityDetector.continuityWithinRange(
+                0, 10, 2, (indexBegin, indexEnd) -> windows.add(new long[]{indexBegin, indexEnd})
+        );
+
+        detector.accept(new double[]{-1, 5, 10, 5, 5, 5}, 0, 6);
+        detector.reset();
+        detector.accept(new double[]{5, 5}, 0, 2);
+
+        assertEquals(2, windows.size());
+        assertArrayEquals(new long[]{3, 4}, windows.get(0));
+        assertArrayEquals(new long[]{0, 1}, windows.get(1));
+    }
+
+    @Test
+    void continuityWithinRange_thresholdNaN_noWindows() {
+
+        final List<long[]> windows = new ArrayList<>();
+        final double[] samples = {-1, 5, 5, 5, Double.NaN, 5};
+        ContinuityDetector.continuityWithinRange(0, Double.NaN, 1, (b, e) -> windows.add(new long[]{b, e})).accept(samples, 0, 6);
+        ContinuityDetector.multiContinuityWithinRange(Double.NaN, 10, 1, (b, e) -> windows.add(new long[]{b, e})).accept(samples, 0, 6);
+        ContinuityDetector.continuityAboveValue(Double.NaN, 1, (b, e) -> windows.add(new long[]{b, e})).accept(samples, 0, 6);
+
+        assertTrue(windows.isEmpty());
+    }
+
+    @Test
+    void continuityDetector_invalidInput_exceptionThrown() {
+
+        assertThrows(InvalidInputException.class, () -> ContinuityDetector.continuityWithinRange(1, 0, 1, (b, e) -> { }));
+        assertThrows(InvalidInputException.class, () -> ContinuityDetector.continuityAboveValue(0, 0, (b, e) -> { }));
+
+        final ContinuityDetector detector = ContinuityDetector.continuityAboveValue(0, 1, (b, e) -> { });
+        assertThrows(IllegalStateException.class, () -> detector.accept(1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> detector.accept(new double[2], 1, 2));
+    }
+}
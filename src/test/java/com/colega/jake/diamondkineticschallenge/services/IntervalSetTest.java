@@ -0,0 +1,177 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import com.colega.jake.diamondkineticschallenge.models.SwingEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalSetTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+
+    @Test
+    void operations_randomSets_matchIndexMasks() {
+
+        final Random random = new Random(53);
+        for (int i = 0; i < 500; i++) {
+            final int length = 1 + random.nextInt(200);
+            final boolean[] a = randomMask(random, length);
+            final boolean[] b = randomMask(random, length);
+            final IntervalSet setA = fromMask(a);
+            final IntervalSet setB = fromMask(b);
+
+            final boolean[] and = new boolean[length];
+            final boolean[] or = new boolean[length];
+            final boolean[] andNot = new boolean[length];
+            for (int k = 0; k < length; k++) {
+                and[k] = a[k] && b[k];
+                or[k] = a[k] || b[k];
+                andNot[k] = a[k] && !b[k];
+            }
+
+            assertEquals(fromMask(and), setA.intersect(setB));
+            assertEquals(fromMask(or), setA.union(setB));
+            assertEquals(fromMask(andNot), setA.difference(setB));
+            assertEquals(fromMask(or), IntervalSet.of(setA.union(setB).toArray()));
+
+            final int minLength = 1 + random.nextInt(6);
+            final IntervalSet filtered = setA.withMinLength(minLength);
+            for (int run = 0; run < filtered.size(); run++) {
+                assertTrue(filtered.getEnd(run) - filtered.getStart(run) >= minLength);
+            }
+            assertEquals(filtered.isEmpty() ? -1 : filtered.getStart(0), setA.firstStart(minLength));
+
+            long covered = 0;
+            for (int k = 0; k < length; k++) {
+                assertEquals(a[k], setA.contains(k));
+                covered += a[k] ? 1 : 0;
+            }
+            assertEquals(covered, setA.getCoveredLength());
+        }
+    }
+
+    @Test
+    void of_overlappingRuns_merged() {
+
+        final IntervalSet set = IntervalSet.of(new int[]{8, 12}, new int[]{0, 3}, new int[]{3, 5}, new int[]{9, 10}, new int[]{6, 6});
+
+        assertEquals("{[0, 5), [8, 12)}", set.toString());
+        assertArrayEquals(new int[][]{{0, 5}, {8, 12}}, set.toArray());
+        assertTrue(IntervalSet.of().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> IntervalSet.of(new int[]{4, 2}));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getStart(2));
+    }
+
+    @Test
+    void extractIntervals_combined_matchAllConditionsSearch() {
+
+        final SwingSearchService swingSearchService = new SwingSearchService();
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+        final Swing encoded = swing.withEncoding(SwingEncoding.FLOAT32);
+        final int length = swing.getLength();
+        final Random random = new Random(59);
+
+        for (int i = 0; i < 100; i++) {
+            final SwingCondition gyroscope = SwingCondition.withinRange(
+                    SwingChannel.GYROSCOPE_Z, random.nextGaussian() - 2, random.nextGaussian() + 2
+            );
+            final SwingCondition accelerator = SwingCondition.above(SwingChannel.ACCELERATOR_X, random.nextGaussian());
+            final SwingCondition below = SwingCondition.below(SwingChannel.ACCELERATOR_Y, random.nextGaussian() + 1);
+            final int winLength = 1 + random.nextInt(10);
+
+            // Each set is read from the samples once, the compound queries only combine them
+            final IntervalSet gyroscopeRuns = swingSearchService.extractIntervals(swing, gyroscope);
+            final IntervalSet acceleratorRuns = swingSearchService.extractIntervals(swing, accelerator);
+            final IntervalSet belowRuns = swingSearchService.extractIntervals(swing, below);
+
+            assertEquals(
+                    swingSearchService.searchContinuityAllConditions(swing, Arrays.asList(gyroscope, accelerator), 0, length, winLength),
+                    gyroscopeRuns.intersect(acceleratorRuns).firstStart(winLength)
+            );
+            assertEquals(
+                    swingSearchService.searchContinuityAllConditions(swing, Arrays.asList(gyroscope, accelerator, below), 0, length, winLength),
+                    gyroscopeRuns.intersect(acceleratorRuns).intersect(belowRuns).firstStart(winLength)
+            );
+
+            final int[][] windows = swingSearchService.searchMultiContinuityWithinRange(
+                    swing, SwingChannel.GYROSCOPE_Z, 0, length, gyroscope.getThresholdLo(), gyroscope.getThresholdHi(), winLength
+            );
+            final IntervalSet longRuns = gyroscopeRuns.withMinLength(winLength);
+            int windowCount = 0;
+            for (int run = 0; run < longRuns.size(); run++) {
+                windowCount += longRuns.getEnd(run) - longRuns.getStart(run) - winLength + 1;
+            }
+            assertEquals(windows.length, windowCount);
+
+            assertEquals(
+                    acceleratorRuns.intersect(IntervalSet.of(new int[]{100, 900})),
+                    swingSearchService.extractIntervals(swing, accelerator, 100, 900)
+            );
+            assertEquals(
+                    swingSearchService.extractIntervals(encoded, gyroscope),
+                    fromMask(maskOf(encoded.getGyroscropeZData(), gyroscope))
+            );
+            assertEquals(
+                    swingSearchService.searchContinuityAllConditions(encoded, Arrays.asList(gyroscope, accelerator), 100, 900, winLength),
+                    swingSearchService.extractIntervals(encoded, gyroscope, 100, 900)
+                            .intersect(swingSearchService.extractIntervals(encoded, accelerator, 100, 900))
+                            .firstStart(winLength)
+            );
+        }
+    }
+
+    @Test
+    void extractIntervals_invalidInput_exceptionThrown() {
+
+        final SwingSearchService swingSearchService = new SwingSearchService();
+        final Swing swing = new Swing(new File(TEST_FILEPATH));
+
+        assertThrows(InvalidInputException.class, () -> swingSearchService.extractIntervals(
+                swing, SwingCondition.above(SwingChannel.ACCELERATOR_X, 0), 10, 5
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.extractIntervals(
+                swing, SwingCondition.withinRange(SwingChannel.ACCELERATOR_X, 2, 1)
+        ));
+    }
+
+    private static boolean[] randomMask(final Random random, final int length) {
+
+        // Runs of random lengths so sets have long and short runs and gaps
+        final boolean[] mask = new boolean[length];
+        boolean value = random.nextBoolean();
+        for (int i = 0; i < length; ) {
+            final int run = 1 + random.nextInt(8);
+            for (int k = 0; k < run && i < length; k++) {
+                mask[i++] = value;
+            }
+            value = !value;
+        }
+        return mask;
+    }
+
+    private static boolean[] maskOf(final double[] data, final SwingCondition condition) {
+        final boolean[] mask = new boolean[data.length];
+        for (int i = 0; i < data.length; i++) {
+            mask[i] = condition.passes(data[i]);
+        }
+        return mask;
+    }
+
+    private static IntervalSet fromMask(final boolean[] mask) {
+
+        final IntervalSet.Builder builder = new IntervalSet.Builder(4);
+        for (int i = 0; i < mask.length; i++) {
+            if (mask[i]) {
+                builder.add(i, i + 1);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.colega.jake.diamondkineticschallenge.services;
+
+import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwingBatchProcessorTest {
+
+    private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
+
+    @Test
+    void process_directory_matchesSearchBatch(@TempDir final Path tempDir) throws IOException {
+
+        for (int i = 0; i < 20; i++) {
+            Files.copy(Paths.get(TEST_FILEPATH), tempDir.resolve("swing_" + i + ".csv"));
+        }
+        Files.write(tempDir.resolve("broken.csv"), "0,1,2\n".getBytes());
+        Files.write(tempDir.resolve("notes.txt"), "not a swing".getBytes());
+
+        final Function<Swing, List<SwingQuery>> queries = swing -> Arrays.asList(
+                SwingQuery.continuityAboveValue(SwingChannel.ACCELERATOR_X, 0, swing.getLength(), 1, 5),
+                SwingQuery.multiContinuityWithinRange(SwingChannel.GYROSCOPE_Z, 0, swing.getLength(), -1, 1, 10)
+        );
+
+        final SwingSearchService swingSearchService = new SwingSearchService();
+        final List<SwingFileResult> results = new ArrayList<>();
+        final SwingBatchReport report = new SwingBatchProcessor(swingSearchService, 4, 2)
+                .process(tempDir, "*.csv", queries, results::add);
+
+        final Swing testSwing = new Swing(Paths.get(TEST_FILEPATH));
+        final List<SwingQueryResult> expected = swingSearchService.searchBatch(testSwing, queries.apply(testSwing));
+
+        assertEquals(21, report.getFileCount());
+        assertEquals(1, report.getFailedFileCount());
+        assertEquals(20L * testSwing.getLength(), report.getSampleCount());
+        assertEquals(21, results.size());
+
+        for (final SwingFileResult result : results) {
+            if (result.getPath().getFileName().toString().equals("broken.csv")) {
+                assertFalse(result.isSuccessful());
+                continue;
+            }
+            assertTrue(result.isSuccessful());
+            assertEquals(expected.get(0).getIndex(), result.getResults().get(0).getIndex());
+            assertArrayEquals(expected.get(1).getWindows(), result.getResults().get(1).getWindows());
+        }
+    }
+
+    @Test
+    void process_errorInEveryFile_allRecorded(@TempDir final Path tempDir) throws IOException {
+
+        for (int i = 0; i < 20; i++) {
+            Files.copy(Paths.get(TEST_FILEPATH), tempDir.resolve("swing_" + i + ".csv"));
+        }
+
+        // One worker and a one slot queue, so files also run on the listing thread
+        final List<SwingFileResult> results = new ArrayList<>();
+        final SwingBatchReport report = new SwingBatchProcessor(new SwingSearchService(), 1, 1).process(
+                tempDir, "*.csv", swing -> { throw new StackOverflowError(); }, results::add
+        );
+
+        assertEquals(20, report.getFileCount());
+        assertEquals(20, report.getFailedFileCount());
+        assertEquals(20, results.size());
+        for (final SwingFileResult result : results) {
+            assertFalse(result.isSuccessful());
+            assertTrue(result.getError() instanceof StackOverflowError);
+        }
+    }
+
+    @Test
+    void swingBatchProcessor_invalidPool_exceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> new SwingBatchProcessor(new SwingSearchService(), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SwingBatchProcessor(new SwingSearchService(), 1, 0));
+    }
+}
@@ -2,10 +2,23 @@ package com.colega.jake.diamondkineticschallenge.services;
 
 import com.colega.jake.diamondkineticschallenge.exceptions.InvalidInputException;
 import com.colega.jake.diamondkineticschallenge.models.Swing;
+import com.colega.jake.diamondkineticschallenge.models.SwingChannel;
+import com.colega.jake.diamondkineticschallenge.models.SwingEncoding;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,13 +27,18 @@ class SwingSearchServiceTest {
     private static final String TEST_FILEPATH = "src/test/resources/test_swing.csv";
 
     private static Swing testSwing;
+    private static Swing mappedTestSwing;
     private static SwingSearchService swingSearchService;
 
     @BeforeAll
-    static void setup() {
+    static void setup(@TempDir final Path tempDir) {
 
         testSwing = new Swing(new File(TEST_FILEPATH));
 
+        final Path binaryPath = tempDir.resolve("test_swing.bin");
+        testSwing.writeBinary(binaryPath);
+        mappedTestSwing = Swing.mapBinary(binaryPath);
+
         swingSearchService = new SwingSearchService();
     }
 
@@ -486,6 +504,50 @@ class SwingSearchServiceTest {
         );
     }
 
+    @Test
+    void searches_thresholdNaN_nothingFound(@TempDir final Path tempDir) {
+
+        // As in value > NaN and value < NaN, a NaN threshold lets no sample through on any storage path
+        final Swing indexedSwing = new Swing(new File(TEST_FILEPATH));
+        indexedSwing.indexChannel(SwingChannel.ACCELERATOR_X);
+        final Path archivePath = tempDir.resolve("test_swing.dksa");
+        testSwing.writeArchive(archivePath);
+        final Swing[] swings = {
+                testSwing, mappedTestSwing, indexedSwing, Swing.mapArchive(archivePath),
+                testSwing.withEncoding(SwingEncoding.FLOAT32), testSwing.withEncoding(SwingEncoding.INT16)
+        };
+        final double[] testData = testSwing.getAcceleratorXData();
+        final int length = testData.length;
+
+        assertEquals(-1, swingSearchService.searchContinuityAboveValue(testData, 0, length, Double.NaN, 1));
+        assertEquals(-1, swingSearchService.backSearchContinuityWithinRange(testData, length - 1, -1, -1e9, Double.NaN, 1));
+        assertEquals(0, swingSearchService.searchMultiContinuityWithinRange(testData, 0, length, Double.NaN, 1e9, 1).length);
+
+        for (final Swing swing : swings) {
+            for (final double[] thresholds : new double[][]{{Double.NaN, 1e9}, {-1e9, Double.NaN}, {Double.NaN, Double.NaN}}) {
+                assertEquals(0, swingSearchService.searchMultiContinuityWithinRange(
+                        swing, SwingChannel.ACCELERATOR_X, 0, length, thresholds[0], thresholds[1], 1
+                ).length);
+                assertEquals(-1, swingSearchService.backSearchContinuityWithinRange(
+                        swing, SwingChannel.ACCELERATOR_X, length - 1, -1, thresholds[0], thresholds[1], 1
+                ));
+                assertFalse(swingSearchService.iterateMultiContinuityWithinRange(
+                        swing, SwingChannel.ACCELERATOR_X, 0, length, thresholds[0], thresholds[1], 1, 10
+                ).hasNext());
+                assertTrue(swingSearchService.extractIntervals(
+                        swing, SwingCondition.withinRange(SwingChannel.ACCELERATOR_X, thresholds[0], thresholds[1])
+                ).isEmpty());
+                assertEquals(-1, swingSearchService.searchBatch(swing, Collections.singletonList(
+                        SwingQuery.backContinuityWithinRange(SwingChannel.ACCELERATOR_X, length - 1, -1, thresholds[0], thresholds[1], 1)
+                )).get(0).getIndex());
+            }
+            assertEquals(-1, swingSearchService.searchContinuityAboveValue(swing, SwingChannel.ACCELERATOR_X, 0, length, Double.NaN, 1));
+            assertEquals(-1, swingSearchService.searchContinuityAboveValueTwoSignals(
+                    swing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, 0, length, -1e9, Double.NaN, 1
+            ));
+        }
+    }
+
     @Test
     void searchContinuityAboveValueTwoSignals_thresholdZero_20Returned() {
 
@@ -756,4 +818,922 @@ class SwingSearchServiceTest {
 
         assertArrayEquals(new int[][]{}, result);
     }
+
+    @Test
+    void searchMultiContinuityWithinRange_longRun_everyOverlappingWindowFound() {
+
+        final double[] testData = new double[]{5, 0.5, 0.5, 0.5, 0.5, 0.5, 5, 0.5, 0.5, 0.5, 0.5};
+
+        final int[][] result = swingSearchService.searchMultiContinuityWithinRange(
+                testData,
+                0,
+                testData.length,
+                0,
+                1,
+                3
+        );
+
+        assertArrayEquals(
+                new int[][]{new int[]{1, 3}, new int[]{2, 4}, new int[]{3, 5}, new int[]{7, 9}, new int[]{8, 10}},
+                result
+        );
+    }
+
+    @Test
+    void searchContinuityAboveValue_mappedSwing_37Returned() {
+
+        final int result = swingSearchService.searchContinuityAboveValue(
+                mappedTestSwing,
+                SwingChannel.ACCELERATOR_X,
+                0,
+                mappedTestSwing.getLength(),
+                1,
+                1
+        );
+
+        assertEquals(37, result);
+    }
+
+    @Test
+    void backSearchContinuityWithinRange_mappedSwing_1264Returned() {
+
+        final int result = swingSearchService.backSearchContinuityWithinRange(
+                mappedTestSwing,
+                SwingChannel.ACCELERATOR_X,
+                mappedTestSwing.getLength() - 1,
+                -1,
+                0,
+                999,
+                1
+        );
+
+        assertEquals(1264, result);
+    }
+
+    @Test
+    void searchContinuityAboveValueTwoSignals_mappedSwing_42Returned() {
+
+        final int result = swingSearchService.searchContinuityAboveValueTwoSignals(
+                mappedTestSwing,
+                SwingChannel.ACCELERATOR_X,
+                SwingChannel.ACCELERATOR_Y,
+                0,
+                mappedTestSwing.getLength() - 1,
+                1.1,
+                1.1,
+                1
+        );
+
+        assertEquals(42, result);
+    }
+
+    @Test
+    void searchMultiContinuityWithinRange_mappedSwing_threeFound() {
+
+        final int[][] result = swingSearchService.searchMultiContinuityWithinRange(
+                mappedTestSwing,
+                SwingChannel.ACCELERATOR_X,
+                0,
+                23,
+                0,
+                999,
+                1
+        );
+
+        assertArrayEquals(new int[][]{new int[]{20, 20}, new int[]{21, 21}, new int[]{22, 22}}, result);
+    }
+
+    @Test
+    void searches_indexedSwing_matchLinearSearches() {
+
+        // Random walk, so runs above and within thresholds come in all lengths
+        final Random random = new Random(7);
+        final StringBuilder csv = new StringBuilder();
+        double value = 0;
+        for (int i = 0; i < 5000; i++) {
+            value += random.nextGaussian() * 0.1;
+            csv.append(i).append(',').append(value).append(",0,0,0,0,0\n");
+        }
+
+        final Swing indexedSwing = new Swing(csv.toString());
+        indexedSwing.indexChannel(SwingChannel.ACCELERATOR_X);
+        final double[] testData = indexedSwing.getAcceleratorXData();
+
+        for (int i = 0; i < 500; i++) {
+
+            final int indexBegin = random.nextInt(testData.length / 2);
+            final int indexEnd = testData.length / 2 + random.nextInt(testData.length / 2);
+            final double thresholdLo = random.nextGaussian();
+            final double thresholdHi = thresholdLo + random.nextDouble() * 2;
+            final int winLength = 1 + random.nextInt(40);
+
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValue(testData, indexBegin, indexEnd, thresholdLo, winLength),
+                    swingSearchService.searchContinuityAboveValue(
+                            indexedSwing, SwingChannel.ACCELERATOR_X, indexBegin, indexEnd, thresholdLo, winLength
+                    )
+            );
+            assertEquals(
+                    swingSearchService.backSearchContinuityWithinRange(
+                            testData, indexEnd, indexBegin - 1, thresholdLo, thresholdHi, winLength
+                    ),
+                    swingSearchService.backSearchContinuityWithinRange(
+                            indexedSwing, SwingChannel.ACCELERATOR_X, indexEnd, indexBegin - 1, thresholdLo, thresholdHi, winLength
+                    )
+            );
+            assertArrayEquals(
+                    swingSearchService.searchMultiContinuityWithinRange(
+                            testData, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+                    ),
+                    swingSearchService.searchMultiContinuityWithinRange(
+                            indexedSwing, SwingChannel.ACCELERATOR_X, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+                    )
+            );
+        }
+    }
+
+    @Test
+    void searchBatch_mixedQueries_matchSingleSearches() {
+
+        final double[] testData1 = testSwing.getAcceleratorXData();
+        final double[] testData2 = testSwing.getAcceleratorYData();
+        final double[] testData3 = testSwing.getGyroscropeZData();
+
+        final List<SwingQuery> queries = Arrays.asList(
+                SwingQuery.continuityAboveValue(SwingChannel.ACCELERATOR_X, 0, testData1.length, 1.1, 1),
+                SwingQuery.multiContinuityWithinRange(SwingChannel.GYROSCOPE_Z, 100, 1200, -2, 2, 10),
+                SwingQuery.backContinuityWithinRange(SwingChannel.ACCELERATOR_X, testData1.length - 1, -1, 0, 999, 1),
+                SwingQuery.continuityAboveValueTwoSignals(
+                        SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, 0, testData1.length - 1, 1.1, 1.1, 1
+                ),
+                SwingQuery.backContinuityWithinRange(SwingChannel.GYROSCOPE_Z, 1000, 10, -50, 50, 30),
+                SwingQuery.continuityAboveValue(SwingChannel.ACCELERATOR_X, 0, testData1.length, 999, 1)
+        );
+
+        for (final Swing swing : new Swing[]{testSwing, mappedTestSwing}) {
+
+            final List<SwingQueryResult> results = swingSearchService.searchBatch(swing, queries);
+
+            assertEquals(queries.size(), results.size());
+            assertEquals(39, results.get(0).getIndex());
+            assertArrayEquals(
+                    swingSearchService.searchMultiContinuityWithinRange(testData3, 100, 1200, -2, 2, 10),
+                    results.get(1).getWindows()
+            );
+            assertEquals(1264, results.get(2).getIndex());
+            assertEquals(42, results.get(3).getIndex());
+            assertEquals(
+                    swingSearchService.backSearchContinuityWithinRange(testData3, 1000, 10, -50, 50, 30),
+                    results.get(4).getIndex()
+            );
+            assertEquals(-1, results.get(5).getIndex());
+        }
+    }
+
+    @Test
+    void searchBatch_invalidQuery_exceptionThrown() {
+        assertThrows(
+                InvalidInputException.class,
+                () ->
+                        swingSearchService.searchBatch(
+                                testSwing,
+                                Arrays.asList(
+                                        SwingQuery.continuityAboveValue(SwingChannel.ACCELERATOR_X, 0, 10, 0, 1),
+                                        SwingQuery.backContinuityWithinRange(SwingChannel.ACCELERATOR_X, 10, 0, 1, 0, 1)
+                                )
+                        )
+        );
+    }
+
+    @Test
+    void searches_parallelService_matchSequentialSearches() {
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final SwingSearchService parallelSearchService = new SwingSearchService(pool, 1);
+
+        // Random walk long enough to span several chunks, with runs crossing chunk boundaries
+        final Random random = new Random(11);
+        final double[] testData1 = new double[400_000];
+        final double[] testData2 = new double[testData1.length];
+        for (int i = 1; i < testData1.length; i++) {
+            testData1[i] = testData1[i - 1] + random.nextGaussian() * 0.05;
+            testData2[i] = testData2[i - 1] + random.nextGaussian() * 0.05;
+        }
+
+        try {
+            for (int i = 0; i < 60; i++) {
+
+                final int indexBegin = random.nextInt(testData1.length / 4);
+                final int indexEnd = testData1.length / 2 + random.nextInt(testData1.length / 2);
+                final double thresholdLo = random.nextGaussian() * 2;
+                final double thresholdHi = thresholdLo + random.nextDouble() * 4;
+                final int winLength = 1 + random.nextInt(i % 2 == 0 ? 50 : 5000);
+
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValue(testData1, indexBegin, indexEnd, thresholdLo, winLength),
+                        parallelSearchService.searchContinuityAboveValue(testData1, indexBegin, indexEnd, thresholdLo, winLength)
+                );
+                assertEquals(
+                        swingSearchService.backSearchContinuityWithinRange(
+                                testData1, indexEnd, indexBegin - 1, thresholdLo, thresholdHi, winLength
+                        ),
+                        parallelSearchService.backSearchContinuityWithinRange(
+                                testData1, indexEnd, indexBegin - 1, thresholdLo, thresholdHi, winLength
+                        )
+                );
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValueTwoSignals(
+                                testData1, testData2, indexBegin, indexEnd, thresholdLo, -thresholdLo, winLength
+                        ),
+                        parallelSearchService.searchContinuityAboveValueTwoSignals(
+                                testData1, testData2, indexBegin, indexEnd, thresholdLo, -thresholdLo, winLength
+                        )
+                );
+                assertArrayEquals(
+                        swingSearchService.searchMultiContinuityWithinRange(
+                                testData1, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+                        ),
+                        parallelSearchService.searchMultiContinuityWithinRange(
+                                testData1, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+                        )
+                );
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void searchContinuityAllConditions_twoAboveConditions_matchesTwoSignalSearch() {
+
+        final int result = swingSearchService.searchContinuityAllConditions(
+                testSwing,
+                Arrays.asList(
+                        SwingCondition.above(SwingChannel.ACCELERATOR_X, 1.1),
+                        SwingCondition.above(SwingChannel.ACCELERATOR_Y, 1.1)
+                ),
+                0,
+                testSwing.getLength() - 1,
+                1
+        );
+
+        assertEquals(42, result);
+    }
+
+    @Test
+    void searchContinuityAllConditions_randomConditions_matchBruteForce() {
+
+        final Random random = new Random(5);
+        final SwingChannel[] channels = SwingChannel.values();
+
+        for (int i = 0; i < 200; i++) {
+
+            final List<SwingCondition> conditions = new ArrayList<>();
+            final int conditionCount = 1 + random.nextInt(4);
+            for (int c = 0; c < conditionCount; c++) {
+                final SwingChannel channel = channels[1 + random.nextInt(channels.length - 1)];
+                final double threshold = random.nextGaussian() * 2;
+                switch (random.nextInt(3)) {
+                    case 0:
+                        conditions.add(SwingCondition.above(channel, threshold));
+                        break;
+                    case 1:
+                        conditions.add(SwingCondition.below(channel, threshold));
+                        break;
+                    default:
+                        conditions.add(SwingCondition.withinRange(channel, threshold, threshold + random.nextDouble() * 4));
+                }
+            }
+
+            final int indexBegin = random.nextInt(testSwing.getLength() / 2);
+            final int winLength = 1 + random.nextInt(20);
+
+            int expected = -1;
+            int currentLength = 0;
+            for (int j = indexBegin; j < testSwing.getLength() && expected == -1; j++) {
+                boolean passes = true;
+                for (final SwingCondition condition : conditions) {
+                    final double value = testSwing.getColumn(condition.getChannel()).get(j);
+                    passes &= value > condition.getThresholdLo() && value < condition.getThresholdHi();
+                }
+                currentLength = passes ? currentLength + 1 : 0;
+                if (currentLength == winLength) {
+                    expected = j - winLength + 1;
+                }
+            }
+
+            assertEquals(expected, swingSearchService.searchContinuityAllConditions(
+                    testSwing, conditions, indexBegin, testSwing.getLength(), winLength
+            ));
+            assertEquals(expected, swingSearchService.searchContinuityAllConditions(
+                    mappedTestSwing, conditions, indexBegin, testSwing.getLength(), winLength
+            ));
+        }
+    }
+
+    @Test
+    void searchContinuityAllConditions_noConditions_exceptionThrown() {
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchContinuityAllConditions(
+                testSwing, new ArrayList<>(), 0, testSwing.getLength(), 1
+        ));
+    }
+
+    @Test
+    void prepare_repeatedExecutes_matchSingleSearches() {
+
+        final int length = testSwing.getLength();
+        final SwingPreparedQuery above = swingSearchService.prepare(
+                testSwing, SwingQuery.continuityAboveValue(SwingChannel.ACCELERATOR_X, 0, length, 1, 5)
+        );
+        final SwingPreparedQuery back = swingSearchService.prepare(
+                mappedTestSwing, SwingQuery.backContinuityWithinRange(SwingChannel.ACCELERATOR_X, length - 1, -1, 0, 999, 1)
+        );
+        final SwingPreparedQuery twoSignals = swingSearchService.prepare(
+                testSwing, SwingQuery.continuityAboveValueTwoSignals(SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, 0, length - 1, 1.1, 1.1, 1)
+        );
+        final SwingPreparedQuery multi = swingSearchService.prepare(
+                testSwing, SwingQuery.multiContinuityWithinRange(SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10)
+        );
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATOR_X, 0, length, 1, 5),
+                    above.execute().getIndex()
+            );
+            assertEquals(1264, back.execute().getIndex());
+            assertEquals(42, twoSignals.execute().getIndex());
+            assertArrayEquals(
+                    swingSearchService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10),
+                    multi.execute().getWindows()
+            );
+        }
+    }
+
+    @Test
+    void prepare_invalidQuery_exceptionThrown() {
+        assertThrows(InvalidInputException.class, () -> swingSearchService.prepare(
+                testSwing, SwingQuery.continuityAboveValue(SwingChannel.ACCELERATOR_X, 10, 5, 1, 5)
+        ));
+    }
+
+    @Test
+    void searches_encodedSwings_matchDecodedData() {
+
+        final Random random = new Random(13);
+        final int length = testSwing.getLength();
+
+        for (final SwingEncoding encoding : new SwingEncoding[]{SwingEncoding.FLOAT32, SwingEncoding.INT16}) {
+
+            final Swing encodedSwing = testSwing.withEncoding(encoding);
+            final double[] data1 = encodedSwing.getAcceleratorXData();
+            final double[] data2 = encodedSwing.getAcceleratorYData();
+
+            for (int i = 0; i < 200; i++) {
+
+                // Thresholds on and next to stored values are where a wrong conversion shows
+                final double thresholdLo = random.nextBoolean() ? data1[random.nextInt(length)] : random.nextGaussian() * 2;
+                final double thresholdHi = random.nextBoolean()
+                        ? Math.max(thresholdLo, data1[random.nextInt(length)])
+                        : thresholdLo + random.nextDouble() * 3;
+                final double threshold2 = random.nextBoolean() ? data2[random.nextInt(length)] : random.nextGaussian();
+                final int indexBegin = random.nextInt(length / 2);
+                final int winLength = 1 + random.nextInt(10);
+
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValue(data1, indexBegin, length, thresholdLo, winLength),
+                        swingSearchService.searchContinuityAboveValue(
+                                encodedSwing, SwingChannel.ACCELERATOR_X, indexBegin, length, thresholdLo, winLength
+                        )
+                );
+                assertEquals(
+                        swingSearchService.backSearchContinuityWithinRange(data1, length - 1, indexBegin, thresholdLo, thresholdHi, winLength),
+                        swingSearchService.backSearchContinuityWithinRange(
+                                encodedSwing, SwingChannel.ACCELERATOR_X, length - 1, indexBegin, thresholdLo, thresholdHi, winLength
+                        )
+                );
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValueTwoSignals(
+                                data1, data2, indexBegin, length, thresholdLo, threshold2, winLength
+                        ),
+                        swingSearchService.searchContinuityAboveValueTwoSignals(
+                                encodedSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, indexBegin, length, thresholdLo, threshold2, winLength
+                        )
+                );
+                assertArrayEquals(
+                        swingSearchService.searchMultiContinuityWithinRange(data1, indexBegin, length, thresholdLo, thresholdHi, winLength),
+                        swingSearchService.searchMultiContinuityWithinRange(
+                                encodedSwing, SwingChannel.ACCELERATOR_X, indexBegin, length, thresholdLo, thresholdHi, winLength
+                        )
+                );
+            }
+        }
+    }
+
+    @Test
+    void searches_archivedSwing_matchHeapSearches(@TempDir final Path tempDir) {
+
+        // Steady stretches longer than a block make whole blocks pass or fail on their min and max alone
+        final Random random = new Random(19);
+        final StringBuilder csv = new StringBuilder();
+        double level = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 1500 == 0) {
+                level = random.nextInt(5) - 2;
+            }
+            final double x = i == 7777 ? Double.NaN : level + (random.nextInt(1000) - 500) / 1e4;
+            final double y = level + (random.nextInt(2000) - 1000) / 1e3;
+            csv.append(i * 1249L).append(',').append(x).append(',').append(y).append(",0,0,0,0\n");
+        }
+        final Swing swing = new Swing(csv.toString());
+        final Path archivePath = tempDir.resolve("archived.dksa");
+        swing.writeArchive(archivePath);
+        final Swing archivedSwing = Swing.mapArchive(archivePath);
+
+        final double[] data1 = swing.getAcceleratorXData();
+        final double[] data2 = swing.getAcceleratorYData();
+        final int length = swing.getLength();
+
+        for (int i = 0; i < 300; i++) {
+
+            final double thresholdLo = random.nextInt(6) - 3 + (random.nextBoolean() ? 0.5 : random.nextGaussian() * 0.1);
+            final double thresholdHi = thresholdLo + (random.nextBoolean() ? 1 : random.nextDouble() * 4);
+            final double threshold2 = random.nextInt(6) - 3.5;
+            final int indexBegin = random.nextInt(length / 2);
+            final int indexEnd = indexBegin + random.nextInt(length - indexBegin) + 1;
+            final int winLength = 1 + random.nextInt(random.nextBoolean() ? 10 : 3000);
+
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValue(data1, indexBegin, indexEnd, thresholdLo, winLength),
+                    swingSearchService.searchContinuityAboveValue(
+                            archivedSwing, SwingChannel.ACCELERATOR_X, indexBegin, indexEnd, thresholdLo, winLength
+                    )
+            );
+            assertEquals(
+                    swingSearchService.backSearchContinuityWithinRange(data1, indexEnd - 1, indexBegin, thresholdLo, thresholdHi, winLength),
+                    swingSearchService.backSearchContinuityWithinRange(
+                            archivedSwing, SwingChannel.ACCELERATOR_X, indexEnd - 1, indexBegin, thresholdLo, thresholdHi, winLength
+                    )
+            );
+            assertEquals(
+                    swingSearchService.searchContinuityAboveValueTwoSignals(
+                            data1, data2, indexBegin, indexEnd, thresholdLo, threshold2, winLength
+                    ),
+                    swingSearchService.searchContinuityAboveValueTwoSignals(
+                            archivedSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, indexBegin, indexEnd, thresholdLo, threshold2, winLength
+                    )
+            );
+            assertArrayEquals(
+                    swingSearchService.searchMultiContinuityWithinRange(data1, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength),
+                    swingSearchService.searchMultiContinuityWithinRange(
+                            archivedSwing, SwingChannel.ACCELERATOR_X, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+                    )
+            );
+        }
+    }
+
+    @Test
+    void withinRangeSearches_everyStoragePath_sameResults(@TempDir final Path tempDir) {
+
+        // Few distinct values, so samples often equal a threshold, plus NaN and infinities
+        final double[] values = {-1, 0, 0.5, 1, 2, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN};
+        final Random random = new Random(67);
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            final double value = values[random.nextInt(random.nextInt(4) == 0 ? values.length : 5)];
+            csv.append(i).append(',').append(value).append(",0,0,0,0,0\n");
+        }
+        final Swing swing = new Swing(csv.toString());
+        final double[] data = swing.getAcceleratorXData();
+        final Path binaryPath = tempDir.resolve("within_range.bin");
+        swing.writeBinary(binaryPath);
+        final Swing indexedSwing = new Swing(csv.toString());
+        indexedSwing.indexChannel(SwingChannel.ACCELERATOR_X);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final SwingSearchService parallelSearchService = new SwingSearchService(pool, 1);
+            final Swing[] swings = {swing, Swing.mapBinary(binaryPath), indexedSwing};
+            final double[] thresholds = {-1, 0, 0.5, 1, 2, Double.MAX_VALUE, Double.POSITIVE_INFINITY};
+            final int length = data.length;
+
+            for (int i = 0; i < 200; i++) {
+                final double thresholdLo = thresholds[random.nextInt(thresholds.length - 1)];
+                final double thresholdHi = Math.max(thresholdLo, thresholds[random.nextInt(thresholds.length)]);
+                final int winLength = 1 + random.nextInt(4);
+
+                final int[][] expected = swingSearchService.searchMultiContinuityWithinRange(data, 0, length, thresholdLo, thresholdHi, winLength);
+                final int expectedBack = swingSearchService.backSearchContinuityWithinRange(data, length - 1, -1, thresholdLo, thresholdHi, winLength);
+                assertArrayEquals(expected, parallelSearchService.searchMultiContinuityWithinRange(data, 0, length, thresholdLo, thresholdHi, winLength));
+                assertEquals(expectedBack, parallelSearchService.backSearchContinuityWithinRange(data, length - 1, -1, thresholdLo, thresholdHi, winLength));
+
+                for (final Swing searchedSwing : swings) {
+                    for (final SwingSearchService service : new SwingSearchService[]{swingSearchService, parallelSearchService}) {
+                        assertArrayEquals(expected, service.searchMultiContinuityWithinRange(
+                                searchedSwing, SwingChannel.ACCELERATOR_X, 0, length, thresholdLo, thresholdHi, winLength
+                        ), thresholdLo + " " + thresholdHi);
+                        assertEquals(expectedBack, service.backSearchContinuityWithinRange(
+                                searchedSwing, SwingChannel.ACCELERATOR_X, length - 1, -1, thresholdLo, thresholdHi, winLength
+                        ), thresholdLo + " " + thresholdHi);
+                    }
+                }
+                assertEquals(
+                        expected.length == 0 ? -1 : expected[0][0],
+                        swingSearchService.extractIntervals(
+                                swing, SwingCondition.withinRange(SwingChannel.ACCELERATOR_X, thresholdLo, thresholdHi)
+                        ).firstStart(winLength)
+                );
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void searches_zoneMaps_matchSampleScans(@TempDir final Path tempDir) {
+
+        // A sensor at rest with short bursts, so most blocks are skipped and some pass whole
+        final Random random = new Random(23);
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 30_000; i++) {
+            final int phase = i % 2500;
+            final double x = phase < 300 ? 4 + random.nextDouble() : phase < 320 ? Double.NaN : random.nextGaussian() * 0.01;
+            final double y = phase < 200 ? 3 + random.nextDouble() : random.nextGaussian() * 0.5;
+            csv.append(i).append(',').append(x).append(',').append(y).append(",0,0,0,0\n");
+        }
+        final Swing swing = new Swing(csv.toString());
+        final Path binaryPath = tempDir.resolve("zone_maps.bin");
+        swing.writeBinary(binaryPath);
+        final Swing mappedSwing = Swing.mapBinary(binaryPath);
+
+        final double[] data1 = swing.getAcceleratorXData();
+        final double[] data2 = swing.getAcceleratorYData();
+        final int length = swing.getLength();
+
+        for (final Swing searchedSwing : new Swing[]{swing, mappedSwing}) {
+
+            assertNotNull(searchedSwing.getZoneMap(SwingChannel.ACCELERATOR_X));
+
+            for (int i = 0; i < 300; i++) {
+
+                final double thresholdLo = random.nextBoolean() ? 3.5 + random.nextDouble() : random.nextGaussian();
+                final double thresholdHi = thresholdLo + (random.nextBoolean() ? 0.5 : 10);
+                final double threshold2 = random.nextBoolean() ? 2.9 : random.nextGaussian();
+                final int indexBegin = random.nextInt(length / 2);
+                final int indexEnd = indexBegin + random.nextInt(length - indexBegin) + 1;
+                final int winLength = 1 + random.nextInt(random.nextBoolean() ? 10 : 400);
+
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValue(data1, indexBegin, indexEnd, thresholdLo, winLength),
+                        swingSearchService.searchContinuityAboveValue(
+                                searchedSwing, SwingChannel.ACCELERATOR_X, indexBegin, indexEnd, thresholdLo, winLength
+                        )
+                );
+                assertEquals(
+                        swingSearchService.backSearchContinuityWithinRange(data1, indexEnd - 1, indexBegin, thresholdLo, thresholdHi, winLength),
+                        swingSearchService.backSearchContinuityWithinRange(
+                                searchedSwing, SwingChannel.ACCELERATOR_X, indexEnd - 1, indexBegin, thresholdLo, thresholdHi, winLength
+                        )
+                );
+                assertEquals(
+                        swingSearchService.searchContinuityAboveValueTwoSignals(
+                                data1, data2, indexBegin, indexEnd, thresholdLo, threshold2, winLength
+                        ),
+                        swingSearchService.searchContinuityAboveValueTwoSignals(
+                                searchedSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, indexBegin, indexEnd, thresholdLo, threshold2, winLength
+                        )
+                );
+                assertArrayEquals(
+                        swingSearchService.searchMultiContinuityWithinRange(data1, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength),
+                        swingSearchService.searchMultiContinuityWithinRange(
+                                searchedSwing, SwingChannel.ACCELERATOR_X, indexBegin, indexEnd, thresholdLo, thresholdHi, winLength
+                        )
+                );
+            }
+        }
+    }
+
+    @Test
+    void durationSearches_randomInputs_matchBruteForce() {
+
+        final Random random = new Random(29);
+        final double[] time = testSwing.getTimeData();
+        final double[] data1 = testSwing.getAcceleratorXData();
+        final double[] data2 = testSwing.getAcceleratorYData();
+        final double lastTime = time[time.length - 1];
+
+        for (int i = 0; i < 300; i++) {
+
+            // Times on and between samples, durations from a single sample to many
+            final double timeBegin = random.nextBoolean() ? time[random.nextInt(time.length / 2)] : random.nextDouble() * lastTime / 2;
+            final double timeEnd = timeBegin + 1 + random.nextDouble() * (lastTime - timeBegin);
+            final double thresholdLo = data1[random.nextInt(time.length)];
+            final double thresholdHi = thresholdLo + random.nextDouble() * 2;
+            final double threshold2 = data2[random.nextInt(time.length)];
+            final double minDuration = random.nextBoolean() ? random.nextInt(3) * 1249 : random.nextDouble() * 50_000;
+
+            final List<double[]> expected = new ArrayList<>();
+            for (int begin = 0; begin < time.length; begin++) {
+                for (int end = begin; end < time.length && time[begin] >= timeBegin && time[end] < timeEnd; end++) {
+                    if (!(data1[end] > thresholdLo && data1[end] < thresholdHi)) {
+                        break;
+                    }
+                    if (time[end] - time[begin] >= minDuration) {
+                        expected.add(new double[]{begin, end});
+                        break;
+                    }
+                }
+            }
+
+            final List<SwingTimeWindow> windows = swingSearchService.searchMultiContinuityWithinRangeForDuration(
+                    testSwing, SwingChannel.ACCELERATOR_X, timeBegin, timeEnd, thresholdLo, thresholdHi, minDuration
+            );
+            assertEquals(expected.size(), windows.size());
+            for (int w = 0; w < windows.size(); w++) {
+                assertEquals((int) expected.get(w)[0], windows.get(w).getIndexBegin());
+                assertEquals((int) expected.get(w)[1], windows.get(w).getIndexEnd());
+                assertEquals(time[windows.get(w).getIndexBegin()], windows.get(w).getTimeBegin());
+                assertEquals(time[windows.get(w).getIndexEnd()], windows.get(w).getTimeEnd());
+            }
+
+            // The first window to complete, walking forward and walking down from the top of the range
+            SwingTimeWindow forward = null;
+            SwingTimeWindow backward = null;
+            SwingTimeWindow twoSignals = null;
+            int runBegin = -1;
+            int runTop = -1;
+            int runBegin2 = -1;
+            for (int k = 0; k < time.length; k++) {
+                final int down = time.length - 1 - k;
+                if (forward == null && time[k] >= timeBegin && time[k] < timeEnd) {
+                    runBegin = data1[k] > thresholdLo ? (runBegin < 0 ? k : runBegin) : -1;
+                    if (runBegin >= 0 && time[k] - time[runBegin] >= minDuration) {
+                        forward = new SwingTimeWindow(runBegin, k, time[runBegin], time[k]);
+                    }
+                }
+                if (twoSignals == null && time[k] >= timeBegin && time[k] < timeEnd) {
+                    runBegin2 = data1[k] > thresholdLo && data2[k] > threshold2 ? (runBegin2 < 0 ? k : runBegin2) : -1;
+                    if (runBegin2 >= 0 && time[k] - time[runBegin2] >= minDuration) {
+                        twoSignals = new SwingTimeWindow(runBegin2, k, time[runBegin2], time[k]);
+                    }
+                }
+                if (backward == null && time[down] <= timeEnd && time[down] > timeBegin) {
+                    runTop = data1[down] > thresholdLo && data1[down] < thresholdHi ? (runTop < 0 ? down : runTop) : -1;
+                    if (runTop >= 0 && time[runTop] - time[down] >= minDuration) {
+                        backward = new SwingTimeWindow(down, runTop, time[down], time[runTop]);
+                    }
+                }
+            }
+
+            assertEquals(String.valueOf(forward), String.valueOf(swingSearchService.searchContinuityAboveValueForDuration(
+                    testSwing, SwingChannel.ACCELERATOR_X, timeBegin, timeEnd, thresholdLo, minDuration
+            )));
+            assertEquals(String.valueOf(twoSignals), String.valueOf(swingSearchService.searchContinuityAboveValueTwoSignalsForDuration(
+                    testSwing, SwingChannel.ACCELERATOR_X, SwingChannel.ACCELERATOR_Y, timeBegin, timeEnd, thresholdLo, threshold2, minDuration
+            )));
+            assertEquals(String.valueOf(backward), String.valueOf(swingSearchService.backSearchContinuityWithinRangeForDuration(
+                    testSwing, SwingChannel.ACCELERATOR_X, timeEnd, timeBegin, thresholdLo, thresholdHi, minDuration
+            )));
+        }
+    }
+
+    @Test
+    void durationSearches_invalidInputs_exceptionThrown() {
+
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchContinuityAboveValueForDuration(
+                testSwing, SwingChannel.ACCELERATOR_X, 5000, 5000, 0, 100
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchContinuityAboveValueForDuration(
+                testSwing, SwingChannel.ACCELERATOR_X, 0, 5000, 0, -1
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.backSearchContinuityWithinRangeForDuration(
+                testSwing, SwingChannel.ACCELERATOR_X, 0, 5000, 0, 1, 100
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchMultiContinuityWithinRangeForDuration(
+                testSwing, SwingChannel.ACCELERATOR_X, Double.NaN, 5000, 1, 0, Double.NaN
+        ));
+    }
+
+    @Test
+    void searches_derivedChannel_matchMagnitudeArray() {
+
+        final double[] magnitude = testSwing.getData(SwingChannel.ACCELERATION_MAGNITUDE);
+        final int length = testSwing.getLength();
+
+        assertEquals(
+                swingSearchService.searchContinuityAboveValue(magnitude, 0, length, 2, 5),
+                swingSearchService.searchContinuityAboveValue(testSwing, SwingChannel.ACCELERATION_MAGNITUDE, 0, length, 2, 5)
+        );
+        assertArrayEquals(
+                swingSearchService.searchMultiContinuityWithinRange(magnitude, 0, length, 0.5, 1.5, 10),
+                swingSearchService.searchMultiContinuityWithinRange(
+                        mappedTestSwing, SwingChannel.ACCELERATION_MAGNITUDE, 0, length, 0.5, 1.5, 10
+                )
+        );
+        assertEquals(
+                swingSearchService.searchContinuityAboveValueTwoSignals(
+                        magnitude, testSwing.getData(SwingChannel.ANGULAR_VELOCITY_MAGNITUDE), 0, length, 1, 1, 3
+                ),
+                swingSearchService.searchContinuityAboveValueTwoSignals(
+                        testSwing, SwingChannel.ACCELERATION_MAGNITUDE, SwingChannel.ANGULAR_VELOCITY_MAGNITUDE, 0, length, 1, 1, 3
+                )
+        );
+    }
+
+    @Test
+    void iterateMultiContinuityWithinRange_randomInputs_matchEagerSearch() {
+
+        final Random random = new Random(47);
+        final double[] data = new double[200_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextGaussian();
+        }
+
+        for (int i = 0; i < 30; i++) {
+            final double thresholdLo = random.nextGaussian() - 1;
+            final double thresholdHi = thresholdLo + 1 + random.nextDouble() * 2;
+            final int winLength = 1 + random.nextInt(i % 5 == 0 ? 3000 : 8);
+            final int begin = random.nextInt(data.length / 2);
+            final int end = begin + 1 + random.nextInt(data.length - begin);
+
+            final int[] expected = Arrays.stream(
+                    swingSearchService.searchMultiContinuityWithinRange(data, begin, end, thresholdLo, thresholdHi, winLength)
+            ).mapToInt(window -> window[0]).toArray();
+            assertArrayEquals(expected, swingSearchService.streamMultiContinuityWithinRange(
+                    data, begin, end, thresholdLo, thresholdHi, winLength, Integer.MAX_VALUE
+            ).toArray());
+
+            final int maxResults = 1 + random.nextInt(50);
+            assertArrayEquals(
+                    Arrays.copyOf(expected, Integer.min(maxResults, expected.length)),
+                    swingSearchService.streamMultiContinuityWithinRange(
+                            data, begin, end, thresholdLo, thresholdHi, winLength, maxResults
+                    ).toArray()
+            );
+        }
+
+        final int length = testSwing.getLength();
+        final PrimitiveIterator.OfInt starts = swingSearchService.iterateMultiContinuityWithinRange(
+                testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10, Integer.MAX_VALUE
+        );
+        for (final int[] window : swingSearchService.searchMultiContinuityWithinRange(testSwing, SwingChannel.GYROSCOPE_Z, 0, length, -1, 1, 10)) {
+            assertEquals(window[0], starts.nextInt());
+        }
+        assertFalse(starts.hasNext());
+        assertThrows(NoSuchElementException.class, starts::nextInt);
+    }
+
+    @Test
+    void iterateMultiContinuityWithinRange_firstStartsPulled_restNotScanned() {
+
+        final List<int[]> chunks = new ArrayList<>();
+        final WindowStartIterator starts = new WindowStartIterator(
+                (begin, end) -> {
+                    chunks.add(new int[]{begin, end});
+                    return IntStream.range(begin, end - 4).toArray();
+                },
+                0,
+                1 << 20,
+                5,
+                Integer.MAX_VALUE
+        );
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, starts.nextInt());
+        }
+        assertEquals(1, chunks.size());
+        assertArrayEquals(new int[]{0, WindowStartIterator.FIRST_CHUNK_SIZE + 4}, chunks.get(0));
+
+        // Later chunks follow on without overlapping starts and grow
+        for (int i = 10; i < 5000; i++) {
+            assertEquals(i, starts.nextInt());
+        }
+        assertEquals(3, chunks.size());
+        assertArrayEquals(new int[]{3 * WindowStartIterator.FIRST_CHUNK_SIZE, 7 * WindowStartIterator.FIRST_CHUNK_SIZE + 4}, chunks.get(2));
+    }
+
+    @Test
+    void iterateMultiContinuityWithinRange_invalidMaxResults_exceptionThrown() {
+        assertThrows(InvalidInputException.class, () -> swingSearchService.iterateMultiContinuityWithinRange(
+                testSwing, SwingChannel.GYROSCOPE_Z, 0, testSwing.getLength(), -1, 1, 10, 0
+        ));
+    }
+
+    @Test
+    void aggregateSearches_randomInputs_matchBruteForce() {
+
+        final Random random = new Random(61);
+        final double[] data = new double[3000];
+        for (int i = 0; i < data.length; i++) {
+            // Offset noise so means and RMS differ, with a few NaN samples
+            data[i] = i % 997 == 500 ? Double.NaN : 0.5 + random.nextGaussian();
+        }
+        final Swing encoded = testSwing.withEncoding(SwingEncoding.FLOAT32);
+        final double[] encodedData = encoded.getGyroscropeZData();
+        final Swing fixedPoint = testSwing.withEncoding(SwingEncoding.INT16);
+        final double[] fixedPointData = fixedPoint.getGyroscropeZData();
+
+        for (int i = 0; i < 400; i++) {
+            final SwingAggregate aggregate = SwingAggregate.values()[i % SwingAggregate.values().length];
+            final int aggLength = 1 + random.nextInt(i % 7 == 0 ? 200 : 12);
+            final int winLength = 1 + random.nextInt(15);
+            final double thresholdLo = random.nextGaussian() * 0.5 + (aggregate == SwingAggregate.MIN ? -1 : 0.5);
+            final double thresholdHi = thresholdLo + random.nextDouble() * 2;
+            final int begin = random.nextInt(data.length / 2);
+            final int end = begin + 1 + random.nextInt(data.length - begin);
+
+            assertEquals(
+                    bruteForceAggregateSearch(data, aggregate, aggLength, begin, end, thresholdLo, Double.NaN, winLength),
+                    swingSearchService.searchAggregateContinuityAboveValue(data, aggregate, aggLength, begin, end, thresholdLo, winLength),
+                    aggregate + " " + aggLength + " " + winLength
+            );
+            assertEquals(
+                    bruteForceAggregateSearch(data, aggregate, aggLength, begin, end, thresholdLo, thresholdHi, winLength),
+                    swingSearchService.searchAggregateContinuityWithinRange(data, aggregate, aggLength, begin, end, thresholdLo, thresholdHi, winLength),
+                    aggregate + " " + aggLength + " " + winLength
+            );
+
+            final int swingEnd = Integer.min(end, encodedData.length);
+            final int swingBegin = Integer.min(begin, swingEnd - 1);
+            assertEquals(
+                    bruteForceAggregateSearch(encodedData, aggregate, aggLength, swingBegin, swingEnd, thresholdLo - 1, thresholdHi, winLength),
+                    swingSearchService.searchAggregateContinuityWithinRange(
+                            encoded, SwingChannel.GYROSCOPE_Z, aggregate, aggLength, swingBegin, swingEnd, thresholdLo - 1, thresholdHi, winLength
+                    )
+            );
+            assertEquals(
+                    bruteForceAggregateSearch(fixedPointData, aggregate, aggLength, swingBegin, swingEnd, thresholdLo - 1, thresholdHi, winLength),
+                    swingSearchService.searchAggregateContinuityWithinRange(
+                            fixedPoint, SwingChannel.GYROSCOPE_Z, aggregate, aggLength, swingBegin, swingEnd, thresholdLo - 1, thresholdHi, winLength
+                    )
+            );
+        }
+    }
+
+    @Test
+    void aggregateSearches_invalidInputs_exceptionThrown() {
+
+        final int length = testSwing.getLength();
+
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchAggregateContinuityAboveValue(
+                testSwing, SwingChannel.ACCELERATOR_X, SwingAggregate.MEAN, 0, 0, length, 1, 5
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchAggregateContinuityAboveValue(
+                testSwing, SwingChannel.ACCELERATOR_X, SwingAggregate.RMS, length + 1, 0, length, 1, 5
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchAggregateContinuityWithinRange(
+                testSwing, SwingChannel.ACCELERATOR_X, null, 4, 0, length, 1, 2, 5
+        ));
+        assertThrows(InvalidInputException.class, () -> swingSearchService.searchAggregateContinuityWithinRange(
+                testSwing, SwingChannel.ACCELERATOR_X, SwingAggregate.MAX, 4, 0, length, 2, 1, 5
+        ));
+    }
+
+    private static int bruteForceAggregateSearch(
+            final double[] data,
+            final SwingAggregate aggregate,
+            final int aggLength,
+            final int indexBegin,
+            final int indexEnd,
+            final double thresholdLo,
+            final double thresholdHi,
+            final int winLength
+    ) {
+
+        int currentLength = 0;
+        for (int i = indexBegin; i < indexEnd; i++) {
+            double value = Double.NaN;
+            if (i - aggLength + 1 >= indexBegin) {
+                double sum = 0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int k = i - aggLength + 1; k <= i; k++) {
+                    sum += aggregate == SwingAggregate.RMS ? data[k] * data[k] : data[k];
+                    min = Double.isNaN(data[k]) ? Double.NaN : Math.min(min, data[k]);
+                    max = Double.isNaN(data[k]) ? Double.NaN : Math.max(max, data[k]);
+                }
+                switch (aggregate) {
+                    case MEAN:
+                        value = sum / aggLength;
+                        break;
+                    case RMS:
+                        value = Math.sqrt(sum / aggLength);
+                        break;
+                    case MIN:
+                        value = min;
+                        break;
+                    default:
+                        value = max;
+                }
+            }
+            if (value > thresholdLo && !(value >= thresholdHi)) {
+                if (++currentLength == winLength) {
+                    return i - winLength + 1;
+                }
+            } else {
+                currentLength = 0;
+            }
+        }
+
+        return -1;
+    }
 }